@@ -0,0 +1,126 @@
+package com.github.jacekolszak.promises;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of building promise chains and settling them.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ChainBenchmark {
+
+    @Param({ "10", "1000" })
+    public int length;
+
+    private final Promise<Integer> resolved = Promise.resolve(1);
+
+    private final Object value = new Object();
+
+    private final Exception exception = new Exception("failed");
+
+    @Benchmark
+    public Object resolvedPromise() {
+        return Promise.resolve(value);
+    }
+
+    @Benchmark
+    public Object singleLinkOnResolvedPromise() {
+        return resolved.thenReturn(v -> v + 1);
+    }
+
+    @Benchmark
+    public Object skippedCatchOnResolvedPromise() {
+        return resolved.catchReturn(e -> 0);
+    }
+
+    @Benchmark
+    public void singleLinkOnPendingPromise(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        new Promise<Integer>(p -> callbacks[0] = p).
+                thenReturn(v -> v + 1).
+                then(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+    @Benchmark
+    public void deepChainOnResolvedPromise(Blackhole blackhole) {
+        Thenable<Integer> chain = resolved;
+        for (int i = 0; i < length; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void deepChainOnPendingPromise(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < length; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.then(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+    @Benchmark
+    public void deepChainRejectedOnPendingPromise(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < length; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.catchReturn(e -> 0).then(blackhole::consume);
+        callbacks[0].reject(exception);
+    }
+
+    @Benchmark
+    public void deepChainWithDeadline(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<Integer>(p -> callbacks[0] = p).
+                withDeadline(Instant.now().plusSeconds(60));
+        for (int i = 0; i < length; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.then(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+    @Benchmark
+    public void deepChainWithTimeoutPerLink(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < length; i++) {
+            chain = Timers.timeout(chain.thenReturn(v -> v + 1), 60_000);
+        }
+        chain.then(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+    @Benchmark
+    public void fanOut(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Promise<Integer> promise = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < length; i++) {
+            promise.then(blackhole::consume);
+        }
+        callbacks[0].resolve(1);
+    }
+
+}
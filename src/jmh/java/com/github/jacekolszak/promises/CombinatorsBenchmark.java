@@ -0,0 +1,129 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of {@link Promise#all(Object...)}, {@link Promise#race(Object...)}, {@link Promise#allSettled(Object...)} and
+ * {@link Promise#any(Object...)}, {@link Promise#map(Iterable, CheckedFunction, int)} and {@link PromiseScope} for
+ * growing number of inputs.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class CombinatorsBenchmark {
+
+    @Param({ "10", "1000", "100000" })
+    public int size;
+
+    private Object[] values;
+
+    private Object[] resolvedPromises;
+
+    private Object[] mixedPromises;
+
+    private Object[] rejectedPromises;
+
+    private List<Object> valueList;
+
+    @Setup
+    public void setup() {
+        values = new Object[size];
+        resolvedPromises = new Object[size];
+        mixedPromises = new Object[size];
+        rejectedPromises = new Object[size];
+        Exception exception = new Exception();
+        for (int i = 0; i < size; i++) {
+            values[i] = i;
+            resolvedPromises[i] = Promise.resolve(i);
+            mixedPromises[i] = i % 2 == 0 ? Promise.resolve(i) : Promise.reject(exception);
+            rejectedPromises[i] = Promise.reject(exception);
+        }
+        valueList = Arrays.asList(values);
+    }
+
+    @Benchmark
+    public void allOfValues(Blackhole blackhole) {
+        Promise.all(values).then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void allOfResolvedPromises(Blackhole blackhole) {
+        Promise.all(resolvedPromises).then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void scopeOfResolvedPromises(Blackhole blackhole) {
+        PromiseScope scope = new PromiseScope();
+        for (Object promise : resolvedPromises) {
+            scope.fork(() -> (Promise<?>) promise);
+        }
+        scope.join().then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void allOfPendingPromises(Blackhole blackhole) {
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[size];
+        Object[] pending = new Object[size];
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            pending[i] = new Promise<>(p -> callbacks[index] = p);
+        }
+        Promise.all(pending).then(blackhole::consume);
+        for (int i = 0; i < size; i++) {
+            callbacks[i].resolve(i);
+        }
+    }
+
+    @Benchmark
+    public void raceOfResolvedPromises(Blackhole blackhole) {
+        Promise.race(resolvedPromises).then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void raceOfPendingPromises(Blackhole blackhole) {
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[size];
+        Object[] pending = new Object[size];
+        for (int i = 0; i < size; i++) {
+            int index = i;
+            pending[i] = new Promise<>(p -> callbacks[index] = p);
+        }
+        Promise.race(pending).then(blackhole::consume);
+        for (int i = 0; i < size; i++) {
+            callbacks[i].resolve(i);
+        }
+    }
+
+    @Benchmark
+    public void allSettledOfMixedPromises(Blackhole blackhole) {
+        Promise.allSettled(mixedPromises).then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void anyOfRejectedPromises(Blackhole blackhole) {
+        Promise.any(rejectedPromises).catchVoid(blackhole::consume);
+    }
+
+    @Benchmark
+    public void mapOfValues(Blackhole blackhole) {
+        Promise.map(valueList, Promise::resolve, 16).then(blackhole::consume);
+    }
+
+}
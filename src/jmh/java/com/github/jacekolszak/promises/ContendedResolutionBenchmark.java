@@ -0,0 +1,52 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Many threads adding callbacks to the same promise, which from time to time is resolved by one of them and replaced
+ * with a new pending one.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@Threads(8)
+@State(Scope.Benchmark)
+public class ContendedResolutionBenchmark {
+
+    private static final int CALLBACKS_PER_RESOLUTION = 64;
+
+    private final AtomicReference<PendingPromise> current = new AtomicReference<>(new PendingPromise());
+
+    @Benchmark
+    public void addCallbackAndResolve(Blackhole blackhole) {
+        current.get().promise.then(blackhole::consume);
+        if (ThreadLocalRandom.current().nextInt(CALLBACKS_PER_RESOLUTION) == 0) {
+            current.getAndSet(new PendingPromise()).callbacks.resolve(1);
+        }
+    }
+
+    private static class PendingPromise {
+
+        private PromiseCallbacks<Integer> callbacks;
+
+        private final Promise<Integer> promise = new Promise<>(p -> callbacks = p);
+
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Cost of {@link PromiseInstrumentation}. With instrumentation "none" results should be the same as results of
+ * {@link ChainBenchmark} methods doing the same work.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class InstrumentationBenchmark {
+
+    @Param({ "none", "noop", "metrics" })
+    public String instrumentation;
+
+    private Promise<Integer> resolved;
+
+    @Setup
+    public void setup() {
+        switch (instrumentation) {
+            case "noop":
+                PromiseInstrumentation.install(new PromiseInstrumentation() {
+                });
+                break;
+            case "metrics":
+                PromiseInstrumentation.install(new PromiseMetrics());
+                break;
+            default:
+                PromiseInstrumentation.install(null);
+        }
+        resolved = Promise.resolve(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        PromiseInstrumentation.install(null);
+    }
+
+    @Benchmark
+    public Promise<Integer> resolvedPromise() {
+        return Promise.resolve(1);
+    }
+
+    @Benchmark
+    public Promise<Integer> singleLinkOnResolvedPromise() {
+        return resolved.thenReturn(i -> i + 1);
+    }
+
+    @Benchmark
+    public void singleLinkOnPendingPromise(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        new Promise<Integer>(p -> callbacks[0] = p).then(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+}
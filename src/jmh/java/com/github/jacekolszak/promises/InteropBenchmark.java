@@ -0,0 +1,61 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Overhead of converting {@link CompletableFuture} to {@link Promise} and back, and of {@link Timers} helpers.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class InteropBenchmark {
+
+    private final CompletableFuture<Integer> completedFuture = CompletableFuture.completedFuture(1);
+
+    private final Promise<Integer> resolved = Promise.resolve(1);
+
+    @Benchmark
+    public void toPromiseOfCompletedFuture(Blackhole blackhole) {
+        Promise.toPromise(completedFuture).then(blackhole::consume);
+    }
+
+    @Benchmark
+    public void toPromiseOfPendingFuture(Blackhole blackhole) {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        Promise.toPromise(future).then(blackhole::consume);
+        future.complete(1);
+    }
+
+    @Benchmark
+    public void completableFutureOfResolvedPromise(Blackhole blackhole) {
+        resolved.toCompletableFuture().thenAccept(blackhole::consume);
+    }
+
+    @Benchmark
+    public void completableFutureOfPendingPromise(Blackhole blackhole) {
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        new Promise<Integer>(p -> callbacks[0] = p).toCompletableFuture().thenAccept(blackhole::consume);
+        callbacks[0].resolve(1);
+    }
+
+    @Benchmark
+    public void timeoutOfResolvedPromise(Blackhole blackhole) {
+        Timers.timeout(resolved, 1).then(blackhole::consume);
+    }
+
+}
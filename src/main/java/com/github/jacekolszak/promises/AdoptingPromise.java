@@ -0,0 +1,31 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Dependent registered on a Promise adopted by another one. It passes the outcome to the adopting Promise as is,
+ * without running any callbacks.
+ */
+class AdoptingPromise extends Promise<Object> {
+
+    private final Promise<?> adopting;
+
+    public AdoptingPromise(Promise<?> adopting) {
+        super(false);
+        this.adopting = adopting;
+    }
+
+    @Override
+    void doResolve(Object result) {
+        adopting.setResult(result);
+    }
+
+    @Override
+    void doReject(Throwable exception) {
+        adopting.setException(exception);
+    }
+
+    @Override
+    boolean isWaiting() {
+        return adopting.isWaiting();
+    }
+
+}
@@ -0,0 +1,25 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Exception used to reject {@link Promise#any(Object...)} when all passed promises were rejected
+ */
+public class AggregateException extends Exception {
+
+    private final Throwable[] exceptions;
+
+    AggregateException(Throwable[] exceptions) {
+        super("All " + exceptions.length + " promises were rejected");
+        this.exceptions = exceptions;
+    }
+
+    /**
+     * @return Exceptions of rejected promises, in the order promises were passed
+     */
+    public List<Throwable> getExceptions() {
+        return Arrays.asList(exceptions.clone());
+    }
+
+}
@@ -0,0 +1,194 @@
+package com.github.jacekolszak.promises;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Loader coalescing values requested separately into bulk operations. Keys passed to
+ * {@link BatchLoader#load(Object)} are collected into a batch which is dispatched - passed to the bulk loader in a
+ * single call - when it reaches the maximum size or when the maximum delay since the first key of the batch elapses,
+ * whichever comes first. Each key is loaded only once per batch - requesting the same key again returns the same
+ * Promise.
+ * <p>
+ * BatchLoader is thread safe. Keys are collected in a short critical section, but the bulk loader and callbacks of
+ * returned promises are never executed while holding a lock.
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of loaded values
+ */
+public class BatchLoader<K, V> {
+
+    private final CheckedFunction<List<K>, Thenable<Map<K, V>>> bulkLoader;
+
+    private final int maxBatchSize;
+
+    private final long maxDelay;
+
+    private final Executor executor;
+
+    /**
+     * Batch collecting keys, null when no key was requested since the last dispatch. Guarded by this.
+     */
+    private Batch<K, V> batch;
+
+    /**
+     * Create a loader dispatching batches after the delay using the default executor (see
+     * {@link Timers#setDefaultExecutor(Executor)}).
+     *
+     * @see BatchLoader#BatchLoader(CheckedFunction, int, long, Executor)
+     */
+    public BatchLoader(CheckedFunction<List<K>, Thenable<Map<K, V>>> bulkLoader, int maxBatchSize, long maxDelay) {
+        this(bulkLoader, maxBatchSize, maxDelay, null);
+    }
+
+    /**
+     * @param bulkLoader   Function loading values of all keys in a batch, in order they were first requested. Keys
+     *                     missing in the returned map are resolved with null. When the bulk loader throws an
+     *                     exception or the returned Thenable is rejected, promises of all keys in the batch are
+     *                     rejected.
+     * @param maxBatchSize Maximum number of distinct keys in a batch. Full batch is dispatched immediately by the
+     *                     thread which requested the last key.
+     * @param maxDelay     Maximum time in millis between requesting the first key of a batch and dispatching it
+     * @param executor     Executor dispatching batches after the delay. When null then the default executor is used.
+     * @throws IllegalArgumentException When bulkLoader is null, maxBatchSize is not positive or maxDelay is negative
+     */
+    public BatchLoader(CheckedFunction<List<K>, Thenable<Map<K, V>>> bulkLoader, int maxBatchSize, long maxDelay,
+                       Executor executor) {
+        if (bulkLoader == null) throw new IllegalArgumentException("Bulk loader cannot be null");
+        if (maxBatchSize < 1) throw new IllegalArgumentException("Max batch size must be positive");
+        if (maxDelay < 0) throw new IllegalArgumentException("Max delay cannot be negative");
+        this.bulkLoader = bulkLoader;
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelay = maxDelay;
+        this.executor = executor;
+    }
+
+    /**
+     * Request a value. The key is added to the current batch.
+     *
+     * @return Promise resolved with the value loaded by the bulk loader
+     * @throws IllegalArgumentException When key is null
+     */
+    public Promise<V> load(K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Promise<V> promise;
+        Batch<K, V> created = null;
+        Batch<K, V> full = null;
+        synchronized (this) {
+            if (batch == null) {
+                batch = new Batch<>();
+                created = batch;
+            }
+            promise = batch.promises.get(key);
+            if (promise == null) {
+                promise = new Promise<>();
+                batch.promises.put(key, promise);
+                if (batch.promises.size() == maxBatchSize) {
+                    full = batch;
+                    batch = null;
+                }
+            }
+        }
+        if (full != null) {
+            full.cancelTimeout();
+            dispatch(full);
+        } else if (created != null) {
+            schedule(created);
+        }
+        return promise;
+    }
+
+    /**
+     * Schedule dispatching the batch after the delay, outside of the critical section. The batch may be dispatched
+     * in the meantime - then the timeout is cancelled by whichever thread comes second.
+     */
+    private void schedule(Batch<K, V> batch) {
+        Executor selectedExecutor = executor != null ? executor : Timers.defaultExecutor();
+        TimerWheel.Timeout timeout =
+                Timers.timer.schedule(() -> selectedExecutor.execute(() -> flush(batch)), maxDelay);
+        batch.timeout = timeout;
+        if (batch.dispatched) {
+            timeout.cancel();
+        }
+    }
+
+    /**
+     * Dispatch the current batch immediately, without waiting for more keys. Bulk loader is executed by the current
+     * thread.
+     */
+    public void flush() {
+        Batch<K, V> current;
+        synchronized (this) {
+            current = batch;
+            batch = null;
+        }
+        if (current != null) {
+            current.cancelTimeout();
+            dispatch(current);
+        }
+    }
+
+    private void flush(Batch<K, V> expired) {
+        synchronized (this) {
+            if (batch != expired) {
+                return;
+            }
+            batch = null;
+        }
+        dispatch(expired);
+    }
+
+    private void dispatch(Batch<K, V> batch) {
+        Thenable<Map<K, V>> values;
+        try {
+            values = bulkLoader.apply(new ArrayList<>(batch.promises.keySet()));
+            if (values == null) throw new IllegalStateException("Bulk loader returned null");
+        } catch (Throwable e) {
+            batch.reject(e);
+            return;
+        }
+        Promise.resolve(values).
+                then(batch::resolve).
+                catchVoid(batch::reject);
+    }
+
+    private static class Batch<K, V> {
+
+        final Map<K, Promise<V>> promises = new LinkedHashMap<>();
+
+        /**
+         * Null until scheduled
+         */
+        volatile TimerWheel.Timeout timeout;
+
+        /**
+         * True once removed from the loader to be dispatched before the delay
+         */
+        volatile boolean dispatched;
+
+        void cancelTimeout() {
+            dispatched = true;
+            TimerWheel.Timeout timeout = this.timeout;
+            if (timeout != null) {
+                timeout.cancel();
+            }
+        }
+
+        void resolve(Map<K, V> values) {
+            for (Map.Entry<K, Promise<V>> entry : promises.entrySet()) {
+                entry.getValue().setResult(values != null ? values.get(entry.getKey()) : null);
+            }
+        }
+
+        void reject(Throwable exception) {
+            for (Promise<V> promise : promises.values()) {
+                promise.setException(exception);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,41 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.CancellationException;
+
+/**
+ * Dependent running the callback when the Promise it is registered on gets cancelled.
+ */
+class CancellationCallback extends Promise<Object> {
+
+    private Runnable callback;
+
+    public CancellationCallback(Runnable callback) {
+        super(false);
+        this.callback = callback;
+    }
+
+    @Override
+    void doResolve(Object result) {
+        callback = null;
+    }
+
+    @Override
+    void doReject(Throwable exception) {
+        Runnable callback = this.callback;
+        this.callback = null;
+        if (exception instanceof CancellationException) {
+            try {
+                callback.run();
+            } catch (Throwable e) {
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    @Override
+    boolean isWaiting() {
+        return false;
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Settings inherited by promises chained from the one they were set on. Immutable, therefore shared by the whole
+ * chain.
+ */
+final class ChainContext {
+
+    /**
+     * Executor running callbacks, null when callbacks are executed by the thread which settled the Promise
+     */
+    final Executor executor;
+
+    /**
+     * Null when the chain has no deadline
+     */
+    final Deadline deadline;
+
+    private ChainContext(Executor executor, Deadline deadline) {
+        this.executor = executor;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return null when neither executor nor deadline is set
+     */
+    static ChainContext of(Executor executor, Deadline deadline) {
+        return executor == null && deadline == null ? null : new ChainContext(executor, deadline);
+    }
+
+}
@@ -0,0 +1,11 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Special kind of {@link java.util.function.BiFunction} functional interface which throws exceptions
+ */
+@FunctionalInterface
+public interface CheckedBiFunction<IN1, IN2, OUT> {
+
+    OUT apply(IN1 in1, IN2 in2) throws Throwable;
+
+}
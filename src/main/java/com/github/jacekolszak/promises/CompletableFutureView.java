@@ -0,0 +1,94 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * {@link CompletableFuture} completed when the Promise is settled. Like any CompletableFuture it can be completed by
+ * other means first - for example by orTimeout of Java 9 - which doesn't affect the Promise, but cancelling it
+ * cancels the Promise (see {@link Promise#cancel()}).
+ */
+class CompletableFutureView<RESULT> extends CompletableFuture<RESULT> {
+
+    /**
+     * Dependent registered on the Promise, null when the Promise was already settled
+     */
+    private final Dependent dependent;
+
+    CompletableFutureView(Promise<?> promise) {
+        dependent = new Dependent(this);
+        promise.addNext(dependent);
+    }
+
+    /**
+     * Create a view of already settled Promise
+     */
+    CompletableFutureView(Object value, Throwable exception) {
+        dependent = null;
+        settle(value, exception);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void settle(Object value, Throwable exception) {
+        if (exception != null) {
+            super.completeExceptionally(exception);
+        } else {
+            super.complete((RESULT) value);
+        }
+    }
+
+    /**
+     * Cancel the Promise only when this call cancels the future - future already completed, by the Promise or by other
+     * means, is not affected
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (isDone()) {
+            return isCancelled();
+        }
+        boolean cancelled = super.cancel(mayInterruptIfRunning);
+        if (cancelled && dependent != null) {
+            dependent.cancel();
+        }
+        return cancelled;
+    }
+
+    private static class Dependent extends Promise<Object> {
+
+        private final CompletableFutureView<?> future;
+
+        Dependent(CompletableFutureView<?> future) {
+            super(false);
+            this.future = future;
+        }
+
+        @Override
+        void doResolve(Object result) {
+            future.settle(result, null);
+        }
+
+        @Override
+        void doReject(Throwable exception) {
+            future.settle(null, exception);
+        }
+
+        /**
+         * Future completed by other means no longer waits for the Promise, so it can be cancelled when all other
+         * dependents were cancelled
+         */
+        @Override
+        boolean isWaiting() {
+            return super.isWaiting() && !future.isDone();
+        }
+
+        @Override
+        boolean cancel(Throwable reason) {
+            boolean cancelled = super.cancel(reason);
+            if (cancelled) {
+                future.settle(null, reason);
+            }
+            return cancelled;
+        }
+
+    }
+
+}
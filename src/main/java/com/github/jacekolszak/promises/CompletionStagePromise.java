@@ -0,0 +1,29 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.CompletionException;
+import java.util.function.BiConsumer;
+
+/**
+ * Promise settled by a {@link java.util.concurrent.CompletionStage}. It is registered on the stage as the completion
+ * action itself, so no other listener is created.
+ */
+class CompletionStagePromise<RESULT> extends Promise<RESULT> implements BiConsumer<RESULT, Throwable> {
+
+    @Override
+    public void accept(RESULT result, Throwable exception) {
+        if (exception != null) {
+            setException(unwrap(exception));
+        } else {
+            setResult(result);
+        }
+    }
+
+    /**
+     * Stages depending on other stages complete with {@link CompletionException} wrapping the actual exception
+     */
+    static Throwable unwrap(Throwable exception) {
+        return exception instanceof CompletionException && exception.getCause() != null ?
+                exception.getCause() : exception;
+    }
+
+}
@@ -0,0 +1,292 @@
+package com.github.jacekolszak.promises;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Deadline shared by a chain of promises, set using {@link Promise#withDeadline(Instant)}. Every Promise chained from
+ * the one returned by that method - the stage of the chain - which is still pending when the deadline passes is
+ * cancelled with {@link PromiseTimeoutException}. Stages are checked by a single timer task, no matter how long the
+ * chain is, and the task is cancelled as soon as all stages are settled.
+ * <p>
+ * Callbacks of stages can read the remaining time using {@link Deadline#current()}, i.e. to pass it to operations
+ * they start.
+ */
+public final class Deadline {
+
+    private static final AtomicReferenceFieldUpdater<Deadline, Stage> STAGES =
+            AtomicReferenceFieldUpdater.newUpdater(Deadline.class, Stage.class, "stages");
+
+    private static final AtomicReferenceFieldUpdater<Deadline, PromiseTimeoutException> EXCEPTION =
+            AtomicReferenceFieldUpdater.newUpdater(Deadline.class, PromiseTimeoutException.class, "exception");
+
+    /**
+     * Top of the stack of a Deadline which has expired
+     */
+    private static final Stage EXPIRED = new Stage(null);
+
+    /**
+     * Budgets longer than that are treated as infinite, so that System.nanoTime() arithmetic doesn't overflow
+     */
+    private static final long MAX_BUDGET_NANOS = Long.MAX_VALUE / 4;
+
+    /**
+     * Deadline of the stage which callback is executed by the current thread
+     */
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Token returned by {@link Deadline#enter(Promise)} when no callback was executed by the current thread
+     */
+    private static final Object NONE = new Object();
+
+    private final Instant instant;
+
+    /**
+     * Time in millis between setting the deadline and the deadline
+     */
+    private final long budget;
+
+    /**
+     * System.nanoTime() of the deadline
+     */
+    private final long nanoTime;
+
+    /**
+     * Time in millis since epoch of the deadline, no earlier than the time it was set
+     */
+    private final long epochMillis;
+
+    private final Executor executor;
+
+    /**
+     * Top of the stack of registered stages linked using {@link Stage#next}, {@link Deadline#EXPIRED} once expired
+     */
+    private volatile Stage stages;
+
+    /**
+     * Number of registered stages which are not settled yet
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    /**
+     * Number of maintenance requests not handled yet. Only the thread which increments it from 0 maintains the timer
+     * task.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * Exception rejecting the stages, created once the deadline has passed
+     */
+    private volatile PromiseTimeoutException exception;
+
+    /**
+     * Accessed only by the maintaining thread. Null when all stages are settled.
+     */
+    private TimerWheel.Timeout timeout;
+
+    /**
+     * @param executor Executor cancelling pending stages when the deadline passes
+     */
+    Deadline(Instant instant, Executor executor) {
+        this.instant = instant;
+        this.executor = executor;
+        Duration budget = Duration.between(Instant.now(), instant);
+        long budgetNanos = budget.isNegative() ? 0 :
+                budget.compareTo(Duration.ofNanos(MAX_BUDGET_NANOS)) > 0 ? MAX_BUDGET_NANOS : budget.toNanos();
+        this.budget = TimeUnit.NANOSECONDS.toMillis(budgetNanos);
+        this.nanoTime = System.nanoTime() + budgetNanos;
+        this.epochMillis = System.currentTimeMillis() + this.budget;
+    }
+
+    /**
+     * @return Deadline of the Promise which callback is executed by the current thread, null when the current thread
+     * doesn't execute a callback or the Promise has no deadline
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public Instant instant() {
+        return instant;
+    }
+
+    /**
+     * @return Time left until the deadline, 0 when it has passed
+     */
+    public long remaining(TimeUnit unit) {
+        return unit.convert(Math.max(0, nanoTime - System.nanoTime()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return true when the deadline has passed, even if pending stages are not cancelled yet
+     */
+    public boolean isExpired() {
+        return nanoTime - System.nanoTime() <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline(" + instant + ")";
+    }
+
+    /**
+     * Register a pending stage, which is not settled before this method returns.
+     *
+     * @return false when the deadline has already passed, even if the timer task didn't expire it yet - then the
+     * stage is not registered and should be rejected with {@link Deadline#exception()}
+     */
+    boolean register(Promise<?> promise) {
+        if (isExpired() || !push(new Stage(promise))) {
+            return false;
+        }
+        if (pending.getAndIncrement() == 0) {
+            maintain();
+        }
+        return true;
+    }
+
+    /**
+     * Called once for each stage, when it is settled
+     */
+    void settled() {
+        if (pending.decrementAndGet() == 0) {
+            maintain();
+        }
+    }
+
+    /**
+     * Valid only once the deadline has passed. Every caller gets the same exception.
+     */
+    PromiseTimeoutException exception() {
+        PromiseTimeoutException exception = this.exception;
+        if (exception == null) {
+            EXCEPTION.compareAndSet(this, null, new PromiseTimeoutException("promise chain", budget, epochMillis));
+            exception = this.exception;
+        }
+        return exception;
+    }
+
+    /**
+     * Enter the callback of the Promise, so that {@link Deadline#current()} returns its deadline.
+     *
+     * @return Token passed to {@link Deadline#exit(Object)}, null when the Promise has no deadline
+     */
+    static Object enter(Promise<?> promise) {
+        Deadline deadline = promise.deadline();
+        if (deadline == null) {
+            return null;
+        }
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous != null ? previous : NONE;
+    }
+
+    static void exit(Object token) {
+        if (token == NONE) {
+            CURRENT.remove();
+        } else if (token != null) {
+            CURRENT.set((Deadline) token);
+        }
+    }
+
+    private boolean push(Stage stage) {
+        for (; ; ) {
+            Stage top = stages;
+            if (top == EXPIRED) {
+                return false;
+            }
+            stage.next = top;
+            if (STAGES.compareAndSet(this, top, stage)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Schedule the timer task when some stage is pending, cancel it otherwise
+     */
+    private void maintain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            if (stages != EXPIRED) {
+                if (pending.get() > 0) {
+                    if (timeout == null) {
+                        long delay = TimeUnit.NANOSECONDS.toMillis(remaining(TimeUnit.NANOSECONDS) + 999_999);
+                        timeout = Timers.timer.schedule(() -> executor.execute(this::expire), delay);
+                    }
+                } else {
+                    if (timeout != null) {
+                        timeout.cancel();
+                        timeout = null;
+                    }
+                    removeSettled();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    /**
+     * Remove settled stages, so that they can be garbage collected before the deadline. Stages registered
+     * concurrently are pushed back.
+     */
+    private void removeSettled() {
+        Stage top;
+        do {
+            top = stages;
+            if (top == null || top == EXPIRED) {
+                return;
+            }
+        } while (!STAGES.compareAndSet(this, top, null));
+        for (Stage stage = top; stage != null; ) {
+            Stage next = stage.next;
+            if (stage.promise.isPending() && !push(stage)) {
+                // expired in the meantime
+                stage.promise.cancel(exception());
+            }
+            stage = next;
+        }
+    }
+
+    private void expire() {
+        PromiseTimeoutException exception = exception();
+        Stage top = STAGES.getAndSet(this, EXPIRED);
+        if (top == EXPIRED) {
+            return;
+        }
+        // reverse the stack to cancel stages in order of registration, so that each stage is rejected with the
+        // timeout instead of being cancelled by a downstream stage
+        Stage stage = null;
+        while (top != null) {
+            Stage next = top.next;
+            top.next = stage;
+            stage = top;
+            top = next;
+        }
+        while (stage != null) {
+            stage.promise.cancel(exception);
+            stage = stage.next;
+        }
+    }
+
+    private static final class Stage {
+
+        final Promise<?> promise;
+
+        Stage next;
+
+        Stage(Promise<?> promise) {
+            this.promise = promise;
+        }
+
+    }
+
+}
@@ -1,22 +1,83 @@
 package com.github.jacekolszak.promises;
 
+import java.util.concurrent.Executor;
+
 class ErrorPromise<RESULT, NEW_RESULT> extends Promise<RESULT> {
 
-    private final CheckedFunction<Throwable, NEW_RESULT> caughtFunction;
+    /**
+     * Null when callback has already been executed
+     */
+    private CheckedFunction<Throwable, NEW_RESULT> caughtFunction;
+
+    /**
+     * Executor running the callback, null when callback is executed by the thread which rejected the Promise
+     */
+    private final Executor callbackExecutor;
 
-    public ErrorPromise(CheckedFunction<Throwable, NEW_RESULT> caughtFunction) {
+    public ErrorPromise(CheckedFunction<Throwable, NEW_RESULT> caughtFunction, Executor callbackExecutor) {
         this.caughtFunction = caughtFunction;
+        this.callbackExecutor = callbackExecutor;
+    }
+
+    @Override
+    void doResolve(RESULT result) {
+        caughtFunction = null;
+        super.doResolve(result);
+    }
+
+    @Override
+    void doReject(Throwable exception) {
+        if (callbackExecutor == null || Trampoline.isRunningOn(callbackExecutor)) {
+            rejectNow(exception);
+        } else {
+            try {
+                Trampoline.execute(callbackExecutor, () -> rejectNow(exception));
+            } catch (Throwable e) {
+                caughtFunction = null;
+                setException(e);
+            }
+        }
+    }
+
+    private void rejectNow(Throwable exception) {
+        if (!isPending()) {
+            // cancelled while waiting for the executor
+            return;
+        }
+        setResult(apply(exception));
     }
 
     @Override
-    synchronized void doReject(Throwable exception) {
+    Promise<?> fireLinked(Object outcome) {
+        if (callbackExecutor != null || !isPending()) {
+            return super.fireLinked(outcome);
+        }
+        if (!(outcome instanceof PromiseRejection)) {
+            caughtFunction = null;
+            return passLinked(outcome);
+        }
+        return settleLinked(apply(((PromiseRejection) outcome).exception));
+    }
+
+    /**
+     * @return Result of the callback, or {@link PromiseRejection} when the callback threw an exception
+     */
+    private Object apply(Throwable exception) {
+        CheckedFunction<Throwable, NEW_RESULT> function = caughtFunction;
+        caughtFunction = null;
+        Object context = Instrumentation.callbackStarted(this);
         NEW_RESULT newResult;
+        Object deadlineToken = Deadline.enter(this);
         try {
-            newResult = caughtFunction.apply(exception);
-            setResult(newResult);
+            newResult = function.apply(exception);
         } catch (Throwable e) {
-            setException(e);
+            Deadline.exit(deadlineToken);
+            if (context != null) Instrumentation.callbackEnded(this, context, e);
+            return new PromiseRejection(e);
         }
+        Deadline.exit(deadlineToken);
+        if (context != null) Instrumentation.callbackEnded(this, context, null);
+        return newResult;
     }
 
 }
@@ -0,0 +1,76 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Installed {@link PromiseInstrumentation} and methods reporting events to it. Methods returning a context return null
+ * only when no instrumentation is installed, so callers can skip the matching end event with a single null check.
+ */
+final class Instrumentation {
+
+    static volatile PromiseInstrumentation current;
+
+    /**
+     * Context of reported events for which instrumentation returned null
+     */
+    private static final Object NO_CONTEXT = new Object();
+
+    private Instrumentation() {
+    }
+
+    static Object created(Promise<?> promise) {
+        PromiseInstrumentation instrumentation = current;
+        if (instrumentation == null) {
+            return null;
+        }
+        try {
+            return contextOrMarker(instrumentation.created(promise));
+        } catch (Throwable e) {
+            uncaught(e);
+            return NO_CONTEXT;
+        }
+    }
+
+    static void settled(Promise<?> promise, Object context, boolean resolved) {
+        PromiseInstrumentation instrumentation = current;
+        if (instrumentation != null) {
+            try {
+                instrumentation.settled(promise, context != NO_CONTEXT ? context : null, resolved);
+            } catch (Throwable e) {
+                uncaught(e);
+            }
+        }
+    }
+
+    static Object callbackStarted(Promise<?> promise) {
+        PromiseInstrumentation instrumentation = current;
+        if (instrumentation == null) {
+            return null;
+        }
+        try {
+            return contextOrMarker(instrumentation.callbackStarted(promise));
+        } catch (Throwable e) {
+            uncaught(e);
+            return NO_CONTEXT;
+        }
+    }
+
+    static void callbackEnded(Promise<?> promise, Object context, Throwable exception) {
+        PromiseInstrumentation instrumentation = current;
+        if (instrumentation != null) {
+            try {
+                instrumentation.callbackEnded(promise, context != NO_CONTEXT ? context : null, exception);
+            } catch (Throwable e) {
+                uncaught(e);
+            }
+        }
+    }
+
+    private static Object contextOrMarker(Object context) {
+        return context != null ? context : NO_CONTEXT;
+    }
+
+    private static void uncaught(Throwable e) {
+        Thread thread = Thread.currentThread();
+        thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+    }
+
+}
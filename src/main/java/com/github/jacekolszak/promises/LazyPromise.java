@@ -0,0 +1,52 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Promise executing its executor code only when the first dependent is registered - a callback is added, the Promise
+ * is passed to a static Promise method like {@link Promise#all(Object...)} or adopted by another Promise. Executor
+ * code is executed exactly once, by the thread which registered the first dependent, even if many threads do it
+ * concurrently. Promise settled before being started, i.e. cancelled, never executes it.
+ */
+class LazyPromise<RESULT> extends Promise<RESULT> {
+
+    private static final AtomicReferenceFieldUpdater<LazyPromise, CheckedConsumer> EXECUTOR =
+            AtomicReferenceFieldUpdater.newUpdater(LazyPromise.class, CheckedConsumer.class, "executor");
+
+    /**
+     * Null once started or settled
+     */
+    private volatile CheckedConsumer<PromiseCallbacks<RESULT>> executor;
+
+    LazyPromise(CheckedConsumer<PromiseCallbacks<RESULT>> executor) {
+        this.executor = executor;
+    }
+
+    @Override
+    void addNext(Promise<?> dependent) {
+        super.addNext(dependent);
+        if (executor != null) {
+            start();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void start() {
+        CheckedConsumer<PromiseCallbacks<RESULT>> executor = EXECUTOR.getAndSet(this, null);
+        if (executor == null || !isPending()) {
+            // started by another thread, or cancelled concurrently after the dependent was registered
+            return;
+        }
+        try {
+            executor.accept(new PromiseCallbacks<>(this));
+        } catch (Throwable throwable) {
+            doReject(throwable);
+        }
+    }
+
+    @Override
+    void onSettled() {
+        executor = null;
+    }
+
+}
@@ -0,0 +1,21 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Exception rejecting an operation submitted to a {@link PromiseLimiter} which has no room for it. The stack trace is
+ * not filled in, unless "com.github.jacekolszak.promises.stackTraces" system property is set to true, so rejecting
+ * operations is cheap even when the limiter is overloaded.
+ */
+public class LimitExceededException extends RejectedExecutionException {
+
+    LimitExceededException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return StackTraces.ENABLED ? super.fillInStackTrace() : this;
+    }
+
+}
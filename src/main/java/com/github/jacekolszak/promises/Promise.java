@@ -1,8 +1,13 @@
 package com.github.jacekolszak.promises;
 
-import java.util.ArrayList;
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
 
 /**
  * Promise is:
@@ -18,6 +23,19 @@ import java.util.concurrent.CompletionStage;
  * registered.
  * <p>
  * Promise is thread safe - adding new callbacks is thread safe. Resolving/rejecting a Promise is thread safe.
+ * Promise is lock-free - neither adding callbacks nor resolving/rejecting blocks, and callbacks are never executed
+ * while holding a lock.
+ * <p>
+ * Callbacks of chained promises are executed one after another by a loop in the thread which resolved/rejected the
+ * Promise (or added the callback to an already settled one), therefore chains of any length don't grow the stack.
+ * <p>
+ * Callbacks registered using async methods, or on a Promise with a default executor, are executed by the
+ * {@link Executor}. Consecutive callbacks using the same executor are executed in a single task.
+ * <p>
+ * Promise can be cancelled. Cancelled Promise is rejected with {@link CancellationException}, which is propagated
+ * through promise chains like any other exception. Cancellation is also propagated upstream - to the Promise this
+ * one was chained from (or adopted) - as long as no other Promise still waits for it. The operation producing the
+ * value can observe cancellation using {@link PromiseCallbacks}.
  * <p>
  * Promise allows to resolve or reject multiple times but subsequent executions don't have any effect.
  * <p>
@@ -25,11 +43,41 @@ import java.util.concurrent.CompletionStage;
  */
 public class Promise<RESULT> implements Thenable<RESULT> {
 
-    private final List<NextPromise> next = new ArrayList<>();
+    private static final AtomicReferenceFieldUpdater<Promise, Object> STATE =
+            AtomicReferenceFieldUpdater.newUpdater(Promise.class, Object.class, "state");
+
+    /**
+     * State of a Promise resolved with null
+     */
+    private static final Object NULL = new Object();
+
+    /**
+     * While pending: null or the last registered dependent - the top of the stack of dependents linked using
+     * {@link Promise#sibling} field. Once resolved: the value itself ({@link Promise#NULL} for null), which is never
+     * a Promise because Thenable values are adopted. Once rejected: {@link PromiseRejection}.
+     */
+    private volatile Object state;
+
+    /**
+     * Dependent registered on the same Promise before this one. Every dependent is registered only on one Promise.
+     */
+    private Promise<?> sibling;
+
+    /**
+     * Promise which this one waits for - the one it was chained from or adopted. Null once settled. Not volatile,
+     * because it is only a hint for cancellation - stale value can only cause an attempt to cancel a settled Promise.
+     */
+    private Promise<?> upstream;
 
-    private PromiseStatus status = PromiseStatus.PENDING;
+    /**
+     * Default executor and deadline of this Promise and promises chained from it, null when neither is set
+     */
+    private ChainContext context;
 
-    private PromiseValue value;
+    /**
+     * Context returned by {@link PromiseInstrumentation#created(Promise)}, null when the Promise is not instrumented
+     */
+    private Object instrumentationContext;
 
     /**
      * Construct a new Promise with executor code. Executor should either resolve or reject the promise using
@@ -41,6 +89,7 @@ public class Promise<RESULT> implements Thenable<RESULT> {
      */
     public Promise(CheckedConsumer<PromiseCallbacks<RESULT>> executor) {
         if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        instrumentationContext = Instrumentation.created(this);
         try {
             executor.accept(new PromiseCallbacks<>(this));
         } catch (Throwable throwable) {
@@ -49,85 +98,462 @@ public class Promise<RESULT> implements Thenable<RESULT> {
     }
 
     Promise() {
+        this(true);
     }
 
-    void setResult(Object result) {
-        if (!isValueSet()) {
-            this.status = PromiseStatus.RESOLVED;
-            this.value = new PromiseValue(result);
-            fire(result);
+    /**
+     * @param instrumented False for internal dependents, which are not reported to {@link PromiseInstrumentation}
+     */
+    Promise(boolean instrumented) {
+        if (instrumented) {
+            instrumentationContext = Instrumentation.created(this);
         }
     }
 
-    void setException(Throwable e) {
-        if (!isValueSet()) {
-            this.status = PromiseStatus.REJECTED;
-            this.value = new PromiseValue(e);
-            fireError(e);
+    /**
+     * When result is a Thenable then it is adopted - the Promise is settled the same way as the Thenable. Therefore
+     * Promise is never resolved with a Thenable value. {@link PromiseRejection} result rejects the Promise.
+     */
+    void setResult(Object result) {
+        if (result instanceof Thenable) {
+            adopt((Thenable<?>) result);
+        } else {
+            settle(result != null ? result : NULL);
         }
     }
 
-    void doResolvePromise(Thenable<RESULT> promise) {
-        promise.then(this::doResolve);
-        promise.catchVoid(this::doReject);
+    void setException(Throwable e) {
+        settle(new PromiseRejection(e));
     }
 
-    synchronized void doResolve(RESULT result) {
-        if (result instanceof Thenable) {
-            doResolvePromise((Thenable<RESULT>) result);
+    private void adopt(Thenable<?> thenable) {
+        if (thenable instanceof Promise) {
+            Promise<?> adopted = (Promise<?>) thenable;
+            upstream = adopted;
+            adopted.addNext(new AdoptingPromise(this));
         } else {
-            setResult(result);
+            try {
+                thenable.then(this::setResult);
+                thenable.catchVoid(this::setException);
+            } catch (Throwable e) {
+                setException(e);
+            }
         }
     }
 
-    synchronized void doReject(Throwable exception) {
+    void doResolve(RESULT result) {
+        setResult(result);
+    }
+
+    void doReject(Throwable exception) {
         setException(exception);
     }
 
     @Override
-    public synchronized <NEW_RESULT> Promise<NEW_RESULT> thenReturn(CheckedFunction<RESULT, NEW_RESULT> callback) {
-        SuccessPromise<RESULT, NEW_RESULT> next = new SuccessPromise<>(callback);
-        addNext(next);
-        fireIfNecessarily();
+    public <NEW_RESULT> Promise<NEW_RESULT> thenReturn(CheckedFunction<RESULT, NEW_RESULT> callback) {
+        return thenReturn(callback, defaultExecutor());
+    }
+
+    @Override
+    public <NEW_RESULT> Promise<NEW_RESULT> thenReturnAsync(CheckedFunction<RESULT, NEW_RESULT> callback,
+                                                            Executor executor) {
+        return thenReturn(callback, executor != null ? executor : Timers.defaultExecutor());
+    }
+
+    private <NEW_RESULT> Promise<NEW_RESULT> thenReturn(CheckedFunction<RESULT, NEW_RESULT> callback,
+                                                        Executor callbackExecutor) {
+        SuccessPromise<RESULT, NEW_RESULT> next = new SuccessPromise<>(callback, callbackExecutor);
+        addStage(next, context);
         return (Promise<NEW_RESULT>) next;
     }
 
     @Override
-    public synchronized <NEW_RESULT> Promise<NEW_RESULT> catchReturn(CheckedFunction<Throwable, NEW_RESULT> callback) {
-        ErrorPromise next = new ErrorPromise<>(callback);
-        addNext(next);
-        fireIfNecessarily();
+    public <NEW_RESULT> Promise<NEW_RESULT> catchReturn(CheckedFunction<Throwable, NEW_RESULT> callback) {
+        return catchReturn(callback, defaultExecutor());
+    }
+
+    @Override
+    public <NEW_RESULT> Promise<NEW_RESULT> catchReturnAsync(CheckedFunction<Throwable, NEW_RESULT> callback,
+                                                             Executor executor) {
+        return catchReturn(callback, executor != null ? executor : Timers.defaultExecutor());
+    }
+
+    private <NEW_RESULT> Promise<NEW_RESULT> catchReturn(CheckedFunction<Throwable, NEW_RESULT> callback,
+                                                         Executor callbackExecutor) {
+        ErrorPromise next = new ErrorPromise<>(callback, callbackExecutor);
+        addStage(next, context);
+        return next;
+    }
+
+    /**
+     * Create a Promise which is settled the same way as this one, but executes its callbacks - and callbacks of all
+     * promises chained from it - using the passed executor instead of the thread which settled the Promise.
+     * Callbacks registered using async methods are still executed by the executor passed to these methods.
+     *
+     * @param executor When null then callbacks are executed by the thread which settled the Promise
+     */
+    public Promise<RESULT> withDefaultExecutor(Executor executor) {
+        Promise<RESULT> next = new SuccessPromise<>(null, null);
+        addStage(next, ChainContext.of(executor, deadline()));
+        return next;
+    }
+
+    /**
+     * Create a Promise which is settled the same way as this one, but is cancelled with
+     * {@link PromiseTimeoutException} if it is still pending when the deadline passes. The deadline is shared by all
+     * promises chained from created one - each of them which is still pending at that time is cancelled as well, all
+     * by a single timer task, and promises chained after that are rejected immediately, without executing their
+     * callbacks. Callbacks of chained promises can read the remaining time using {@link Deadline#current()}.
+     * <p>
+     * When this Promise already has an earlier deadline then created Promise keeps it.
+     * Pending promises are cancelled by the default executor of this Promise, or by the default executor set using
+     * {@link Timers#setDefaultExecutor(Executor)} if there is none.
+     *
+     * @throws IllegalArgumentException When deadline is null
+     */
+    public Promise<RESULT> withDeadline(Instant deadline) {
+        if (deadline == null) throw new IllegalArgumentException("Deadline cannot be null");
+        ChainContext context = this.context;
+        Deadline current = deadline();
+        if (current == null || deadline.isBefore(current.instant())) {
+            Executor executor = defaultExecutor();
+            Deadline created = new Deadline(deadline, executor != null ? executor : Timers.defaultExecutor());
+            context = ChainContext.of(executor, created);
+        }
+        Promise<RESULT> next = new SuccessPromise<>(null, null);
+        addStage(next, context);
         return next;
     }
 
-    private void fireIfNecessarily() {
-        if (isValueSet()) {
-            if (status == PromiseStatus.RESOLVED) {
-                fire(value.value);
-            } else {
-                fireError((Throwable) value.value);
+    /**
+     * @return Deadline set using {@link Promise#withDeadline(Instant)} on this Promise or on the one it was chained
+     * from, null when there is none
+     */
+    public Deadline deadline() {
+        ChainContext context = this.context;
+        return context != null ? context.deadline : null;
+    }
+
+    private Executor defaultExecutor() {
+        ChainContext context = this.context;
+        return context != null ? context.executor : null;
+    }
+
+    /**
+     * Register the Promise created by then/catch methods as a dependent, passing the context of the chain to it
+     */
+    private void addStage(Promise<?> next, ChainContext context) {
+        next.context = context;
+        Deadline deadline = context != null ? context.deadline : null;
+        if (deadline != null && !deadline.register(next)) {
+            // rejected without the context, so that the deadline doesn't count a stage it hasn't registered, and
+            // before it could be fired by this Promise - the callback is not executed
+            next.context = null;
+            next.settle(new PromiseRejection(deadline.exception()));
+            next.context = context;
+            return;
+        }
+        addNext(next);
+    }
+
+    /**
+     * Cancel the Promise if it is still pending. Cancelled Promise is rejected with {@link CancellationException}.
+     * Cancellation is propagated upstream - to the Promise this one was chained from or adopted - unless some other
+     * Promise still waits for it.
+     *
+     * @return false when Promise was already settled
+     */
+    public boolean cancel() {
+        return cancel(new CancellationException("Promise was cancelled"));
+    }
+
+    /**
+     * Reject the Promise with the reason and cancel promises upstream which are no longer awaited.
+     *
+     * @return false when Promise was already settled
+     */
+    boolean cancel(Throwable reason) {
+        Promise<?> upstream = this.upstream;
+        if (!settle(new PromiseRejection(reason))) {
+            return false;
+        }
+        PromiseRejection cancellation = null;
+        while (upstream != null) {
+            Promise<?> next = upstream.upstream;
+            if (cancellation == null) {
+                cancellation = new PromiseRejection(new CancellationException("All dependent promises were cancelled"));
             }
+            if (!upstream.settleUnlessAwaited(cancellation)) {
+                break;
+            }
+            upstream = next;
         }
+        return true;
+    }
+
+    /**
+     * @return true when Promise was cancelled (rejected with {@link CancellationException})
+     */
+    public boolean isCancelled() {
+        Object current = state;
+        return current instanceof PromiseRejection &&
+                ((PromiseRejection) current).exception instanceof CancellationException;
     }
 
-    private void fire(Object result) {
-        next.stream().forEach(next -> next.doResolve(result));
+    boolean isPending() {
+        return !isSettled(state);
     }
 
-    private void fireError(Throwable exception) {
-        next.stream().forEach(next -> next.doReject(exception));
+    /**
+     * @return Exception of rejected Promise, null when the Promise is pending or resolved
+     */
+    Throwable rejection() {
+        Object current = state;
+        return current instanceof PromiseRejection ? ((PromiseRejection) current).exception : null;
+    }
+
+    /**
+     * @return true when this Promise, registered as a dependent, still waits for the outcome
+     */
+    boolean isWaiting() {
+        return isPending();
+    }
+
+    /**
+     * Settle the Promise unless some dependent still waits for it. Dependents are checked on the same stack which
+     * is then replaced by the outcome, so a dependent added concurrently either fails the swap - and is checked
+     * again - or is added to the settled Promise.
+     *
+     * @return false when Promise was already settled or is awaited
+     */
+    private boolean settleUnlessAwaited(Object outcome) {
+        for (; ; ) {
+            Object current = state;
+            if (isSettled(current) || hasWaitingDependents((Promise<?>) current)) {
+                return false;
+            }
+            if (STATE.compareAndSet(this, current, outcome)) {
+                onSwapped(outcome);
+                Trampoline.fire(reverse((Promise<?>) current), outcome);
+                return true;
+            }
+        }
     }
 
-    private void addNext(Promise<RESULT> promise) {
-        this.next.add(new NextPromise(promise));
+    private static boolean hasWaitingDependents(Promise<?> dependents) {
+        for (Promise<?> dependent = dependents; dependent != null; dependent = dependent.sibling) {
+            if (dependent.isWaiting()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Only the thread which managed to swap the stack of dependents for the outcome fires them, therefore every
+     * dependent is fired exactly once.
+     *
+     * @return false when Promise was already settled
+     */
+    private boolean settle(Object outcome) {
+        Object dependents = swap(outcome);
+        if (isSettled(dependents)) {
+            return false;
+        }
+        Trampoline.fire(reverse((Promise<?>) dependents), outcome);
+        return true;
     }
 
-    private boolean isValueSet() {
-        return value != null;
+    /**
+     * Same as {@link Promise#setResult(Object)}, but instead of firing dependents returns the first of them, so that
+     * the caller fires them in its own loop. Used by synchronous links fused by
+     * {@link Promise#fireAll(Object, Trampoline)}.
+     *
+     * @return First dependent, null when there are none, the Promise adopts a Thenable or was already settled
+     */
+    Promise<?> settleLinked(Object result) {
+        if (result instanceof Thenable) {
+            adopt((Thenable<?>) result);
+            return null;
+        }
+        return passLinked(result != null ? result : NULL);
+    }
+
+    /**
+     * Same as {@link Promise#settleLinked(Object)}, but for the outcome of the upstream Promise passed through as is
+     * - a rejection skipping a link is not wrapped again.
+     */
+    Promise<?> passLinked(Object outcome) {
+        Object dependents = swap(outcome);
+        return isSettled(dependents) ? null : reverse((Promise<?>) dependents);
+    }
+
+    /**
+     * @return Stack of dependents replaced by the outcome, or the outcome of already settled Promise
+     */
+    private Object swap(Object outcome) {
+        for (; ; ) {
+            Object current = state;
+            if (isSettled(current)) {
+                return current;
+            }
+            if (STATE.compareAndSet(this, current, outcome)) {
+                onSwapped(outcome);
+                return current;
+            }
+        }
+    }
+
+    private void onSwapped(Object outcome) {
+        upstream = null;
+        if (context != null && context.deadline != null) {
+            context.deadline.settled();
+        }
+        if (instrumentationContext != null) {
+            Instrumentation.settled(this, instrumentationContext, !(outcome instanceof PromiseRejection));
+        }
+        onSettled();
+    }
+
+    /**
+     * Executed once, by the thread which settled the Promise, before any dependent is fired.
+     */
+    void onSettled() {
+    }
+
+    private static boolean isSettled(Object state) {
+        return state != null && !(state instanceof Promise);
+    }
+
+    /**
+     * @return First registered dependent, with the rest linked in registration order
+     */
+    private static Promise<?> reverse(Promise<?> top) {
+        Promise<?> first = null;
+        while (top != null) {
+            Promise<?> next = top.sibling;
+            top.sibling = first;
+            first = top;
+            top = next;
+        }
+        return first;
+    }
+
+    /**
+     * Fire this dependent and all dependents registered after it on the same Promise, by the loop draining the
+     * trampoline.
+     * <p>
+     * The last dependent is fired using {@link Promise#fireLinked(Object)}: when it is a synchronous link, which
+     * settles itself while being fired, its own dependents are returned and fired by this loop instead of being
+     * queued in the trampoline. When nothing else is queued they would be fired right after anyway, so consecutive
+     * links of a chain are fused into a single loop without changing the order of callbacks, and a rejection
+     * skipping many links is passed through as is.
+     */
+    void fireAll(Object outcome, Trampoline trampoline) {
+        Promise<?> next = this;
+        while (next != null) {
+            Promise<?> dependent = next;
+            next = dependent.sibling;
+            dependent.sibling = null;
+            if (next != null) {
+                dependent.fire(outcome);
+                continue;
+            }
+            next = dependent.fireLinked(outcome);
+            if (next != null) {
+                outcome = dependent.state;
+                if (!trampoline.isIdle()) {
+                    trampoline.enqueue(next, outcome);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void fire(Object outcome) {
+        if (outcome instanceof PromiseRejection) {
+            doReject(((PromiseRejection) outcome).exception);
+        } else {
+            doResolve(value(outcome));
+        }
+    }
+
+    /**
+     * Fire the dependent. Links which can settle synchronously override it - they use
+     * {@link Promise#settleLinked(Object)} and return its result.
+     *
+     * @return First dependent of this Promise which should be fired by the caller, null when there is none
+     */
+    Promise<?> fireLinked(Object outcome) {
+        fire(outcome);
+        return null;
+    }
+
+    /**
+     * @return Value of a resolved Promise from its outcome
+     */
+    @SuppressWarnings("unchecked")
+    static <VALUE> VALUE value(Object outcome) {
+        return outcome != NULL ? (VALUE) outcome : null;
+    }
+
+    void addNext(Promise<?> dependent) {
+        dependent.upstream = this;
+        for (; ; ) {
+            Object current = state;
+            if (isSettled(current)) {
+                Trampoline.fire(dependent, current);
+                return;
+            }
+            dependent.sibling = (Promise<?>) current;
+            if (STATE.compareAndSet(this, current, dependent)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Create a {@link CompletableFuture} completed when this Promise is settled, with the same value or exception.
+     * Completing the future by other means doesn't affect the Promise, but cancelling it cancels the Promise (see
+     * {@link Promise#cancel()}). Future of already settled Promise is created completed.
+     */
+    public CompletableFuture<RESULT> toCompletableFuture() {
+        Object current = state;
+        if (!isSettled(current)) {
+            return new CompletableFutureView<>(this);
+        } else if (current instanceof PromiseRejection) {
+            return new CompletableFutureView<>(null, ((PromiseRejection) current).exception);
+        } else {
+            return new CompletableFutureView<>(current != NULL ? current : null, null);
+        }
+    }
+
+    /**
+     * Create a {@link CompletionStage} completed when this Promise is settled, i.e. to pass the Promise to an API
+     * accepting stages. Calling {@link CompletionStage#toCompletableFuture()} on returned stage doesn't create another
+     * object.
+     *
+     * @see Promise#toCompletableFuture()
+     */
+    public CompletionStage<RESULT> asCompletionStage() {
+        return toCompletableFuture();
     }
 
     @Override
     public String toString() {
+        Object current = state;
+        PromiseStatus status;
+        Object value;
+        if (!isSettled(current)) {
+            status = PromiseStatus.PENDING;
+            value = null;
+        } else if (current instanceof PromiseRejection) {
+            status = PromiseStatus.REJECTED;
+            value = ((PromiseRejection) current).exception;
+        } else {
+            status = PromiseStatus.RESOLVED;
+            value = current != NULL ? current : null;
+        }
         return "Promise(" +
                 "status=" + status +
                 ", value=" + value + ")";
@@ -139,7 +565,12 @@ public class Promise<RESULT> implements Thenable<RESULT> {
      * @param promiseOrValue If it is a Promise then resolve the Promise first.
      */
     public static <V> Promise<V> resolve(V promiseOrValue) {
-        return new Promise<>(p -> p.resolve(promiseOrValue));
+        if (promiseOrValue instanceof Thenable) {
+            Promise<V> promise = new Promise<>();
+            promise.setResult(promiseOrValue);
+            return promise;
+        }
+        return new ResolvedPromise<>(promiseOrValue);
     }
 
     /**
@@ -147,14 +578,31 @@ public class Promise<RESULT> implements Thenable<RESULT> {
      * avoid casting.
      */
     public static <T> Promise<T> resolve(Thenable<T> promise) {
-        return new Promise<>(p -> p.resolve((T) promise));
+        return resolve((T) promise);
     }
 
     /**
      * Create a Promise that rejects with passed exception immediately.
      */
     public static <R extends Throwable> Promise<R> reject(R exception) {
-        return new Promise<>(p -> p.reject(exception));
+        return new RejectedPromise<>(exception);
+    }
+
+    /**
+     * Create a Promise which executor code is executed only when the Promise is needed - when the first callback is
+     * added, or the Promise is passed to a static Promise method like {@link Promise#all(Object...)} or returned from
+     * a callback. Executor code is executed exactly once, by the thread which needed the Promise first, even if many
+     * threads need it at the same time. Promise cancelled before it was needed never executes the executor code.
+     * <p>
+     * Lazy promises are cheap to create, so they can be used to build graphs of operations from which only some
+     * are executed.
+     *
+     * @param executor The same as in {@link Promise#Promise(CheckedConsumer)}, but executed later
+     * @throws IllegalArgumentException When executor is null
+     */
+    public static <RESULT> Promise<RESULT> lazy(CheckedConsumer<PromiseCallbacks<RESULT>> executor) {
+        if (executor == null) throw new IllegalArgumentException("Executor cannot be null");
+        return new LazyPromise<>(executor);
     }
 
     /**
@@ -181,19 +629,126 @@ public class Promise<RESULT> implements Thenable<RESULT> {
     }
 
     /**
-     * Create a Promise from Java 8's CompletableFuture
+     * Create a Promise that resolves when all of the passed promises have settled, no matter if they resolved or
+     * rejected. Created Promise is never rejected because of passed promises.
+     *
+     * @param promisesOrValues If null then created Promise is rejected.
+     *                         If empty then created Promise is resolved with empty outcomes.
+     */
+    public static Promise<PromiseOutcomes> allSettled(Object... promisesOrValues) {
+        return new Promise<>(p -> new PromiseAllSettled(promisesOrValues, p));
+    }
+
+    /**
+     * Create a Promise that resolves as soon as one of the promises resolves, with the value from that promise. If all
+     * passed promises reject then created Promise is rejected with {@link AggregateException}.
+     *
+     * @param promisesOrValues If null then created Promise is rejected.
+     *                         If empty then created Promise is rejected with {@link AggregateException}.
+     */
+    public static Promise<Object> any(Object... promisesOrValues) {
+        return new Promise<>(p -> new PromiseAny(promisesOrValues, p));
+    }
+
+    /**
+     * Create a Promise that resolves with a list of values of promises returned by the mapper for each of the inputs,
+     * in order of inputs. Inputs are pulled lazily and mapped only when fewer than {@code concurrency} returned
+     * promises are pending, so inputs can be generated on the fly. Created Promise is rejected with the reason of the
+     * first returned promise that rejects (or an exception thrown by the iterator or the mapper), and then pending
+     * promises are cancelled. Iterator and mapper are never used by two threads at the same time.
+     *
+     * @param concurrency Maximum number of pending promises returned by the mapper
+     * @throws IllegalArgumentException (rejects created Promise) When inputs or mapper is null or concurrency is not
+     *                                  positive
+     */
+    public static <T, R> Promise<List<R>> map(Iterable<? extends T> inputs,
+                                              CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper,
+                                              int concurrency) {
+        return new Promise<>(p -> new PromiseMap<>("map", inputs, mapper, concurrency, p));
+    }
+
+    /**
+     * Sequential variant of {@link Promise#map(Iterable, CheckedFunction, int)} - the next input is pulled and mapped
+     * only when the promise returned for the previous one resolved. Only one mapped promise exists at a time, no
+     * matter how many inputs there are, and synchronously resolved promises are handled in a loop using constant
+     * stack depth.
+     *
+     * @throws IllegalArgumentException (rejects created Promise) When inputs or mapper is null
+     */
+    public static <T, R> Promise<List<R>> sequence(Iterable<? extends T> inputs,
+                                                   CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper) {
+        return new Promise<>(p -> new PromiseMap<>("sequence", inputs, mapper, 1, p));
+    }
+
+    /**
+     * Create a Promise that resolves with the value of the Thenable returned by the reducer for the last input, or
+     * with the seed when there are no inputs. Reducer is executed with the seed and the first input, then with the
+     * value of the previously returned Thenable and the next input - only when that Thenable resolved. Inputs are
+     * pulled lazily, one at a time, so that reducing runs in constant memory and constant stack depth. Created
+     * Promise is rejected with the reason of the first returned Thenable that rejects (or an exception thrown by the
+     * iterator or the reducer), and cancelling it cancels the pending Thenable.
+     *
+     * @throws IllegalArgumentException (rejects created Promise) When inputs or reducer is null
+     */
+    public static <T, ACC> Promise<ACC> reduce(Iterable<? extends T> inputs, ACC seed,
+                                               CheckedBiFunction<? super ACC, ? super T,
+                                                       ? extends Thenable<? extends ACC>> reducer) {
+        return new Promise<>(p -> new PromiseReduce<>(inputs, seed, reducer, p));
+    }
+
+    /**
+     * Streaming variant of {@link Promise#map(Iterable, CheckedFunction, int)}, which doesn't keep values in memory.
+     * Consumer is executed with each value as soon as it is available, so in order of resolution rather than order of
+     * inputs, and never by two threads at the same time. Created Promise resolves with null when all values were
+     * consumed, or rejects when consumer throws an exception.
+     *
+     * @param concurrency Maximum number of pending promises returned by the mapper
+     * @throws IllegalArgumentException (rejects created Promise) When inputs, mapper or consumer is null or
+     *                                  concurrency is not positive
+     */
+    public static <T, R> Promise<Void> mapUnordered(Iterable<? extends T> inputs,
+                                                    CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper,
+                                                    int concurrency, CheckedConsumer<? super R> consumer) {
+        return new Promise<>(p -> new PromiseMapUnordered<>(inputs, mapper, concurrency, consumer, p));
+    }
+
+    /**
+     * Create a Promise that resolves with the value of the Thenable returned by the operation, attempting the operation
+     * again according to the policy when the Thenable is rejected (or the operation throws an exception). Created
+     * Promise is rejected with the exception of the last attempt. Delays between attempts are measured by the timer
+     * used by {@link Timers}, and delayed attempts are started by the default executor (see
+     * {@link Timers#setDefaultExecutor(Executor)}). Cancelling created Promise cancels the pending attempt and stops
+     * retrying.
+     *
+     * @throws IllegalArgumentException (rejects created Promise) When operation or policy is null
+     */
+    public static <RESULT> Promise<RESULT> retry(Supplier<? extends Thenable<RESULT>> operation, RetryPolicy policy) {
+        return new Promise<>(p -> new PromiseRetry<>(operation, policy, p));
+    }
+
+    /**
+     * Create a Promise from Java 8's CompletableFuture. Promise of already completed CompletableFuture is created
+     * settled. {@link java.util.concurrent.CompletionException} is unwrapped - Promise is rejected with its cause.
      *
      * @throws IllegalArgumentException When future is null
      */
     public static <RESULT> Promise<RESULT> toPromise(CompletionStage<RESULT> future) {
         if (future == null) throw new IllegalArgumentException("Future cannot be null");
-        return new Promise<>(p -> future.whenComplete((result, exception) -> {
-            if (exception != null) {
-                p.reject(exception);
-            } else {
-                p.resolve(result);
+        if (future instanceof CompletableFuture && ((CompletableFuture<RESULT>) future).isDone()) {
+            CompletableFuture<RESULT> completed = (CompletableFuture<RESULT>) future;
+            try {
+                return resolve(completed.getNow(null));
+            } catch (Throwable e) {
+                return new RejectedPromise<>(CompletionStagePromise.unwrap(e));
             }
-        }));
+        }
+        CompletionStagePromise<RESULT> promise = new CompletionStagePromise<>();
+        try {
+            future.whenComplete(promise);
+        } catch (Throwable e) {
+            promise.setException(e);
+        }
+        return promise;
     }
 
 }
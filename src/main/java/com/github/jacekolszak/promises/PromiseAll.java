@@ -1,46 +1,39 @@
 package com.github.jacekolszak.promises;
 
-import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-class PromiseAll {
+class PromiseAll extends PromiseCombinator<Object[]> {
 
-    private final PromiseCallbacks<Object[]> promiseCallbacks;
+    private final Object[] results;
 
-    private final int count;
-
-    private final ConcurrentMap<Integer, Optional<Object>> responses = new ConcurrentHashMap<>();
+    private final AtomicInteger remaining;
 
     public PromiseAll(Object[] values, PromiseCallbacks<Object[]> promiseCallbacks) {
-        if (values == null) {
-            throw new IllegalArgumentException("Null array passed to Promise.all");
-        }
-        this.promiseCallbacks = promiseCallbacks;
-        this.count = values.length;
-        if (count == 0) {
-            promiseCallbacks.resolve(new Object[0]);
+        super("all", values, promiseCallbacks);
+        this.results = new Object[values.length];
+        this.remaining = new AtomicInteger(values.length);
+        if (values.length == 0) {
+            promiseCallbacks.resolve(results);
         } else {
-            for (int i = 0; i < count; i++) {
-                resolve(i, values[i]);
-            }
+            subscribe(values);
         }
     }
 
-    private void resolve(int valueNumber, Object value) {
-        Promise.resolve(value).
-                then(response -> handleResponse(valueNumber, response)).
-                catchVoid(promiseCallbacks::reject);
+    @Override
+    void onResolved(int index, Object value) {
+        if (!isDone()) {
+            results[index] = value;
+            if (remaining.decrementAndGet() == 0) {
+                promiseCallbacks.resolve(results);
+            }
+        }
     }
 
-    private void handleResponse(int valueNumber, Object response) {
-        responses.put(valueNumber, Optional.ofNullable(response));
-        if (responses.size() == count) {
-            Object[] values = new Object[count];
-            for (int i = 0; i < count; i++) {
-                values[i] = responses.get(i).orElseGet(() -> null);
-            }
-            promiseCallbacks.resolve(values);
+    @Override
+    void onRejected(int index, Throwable exception) {
+        if (!isDone()) {
+            promiseCallbacks.reject(exception);
+            finish();
         }
     }
 
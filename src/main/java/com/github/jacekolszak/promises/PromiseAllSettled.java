@@ -0,0 +1,50 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+class PromiseAllSettled extends PromiseCombinator<PromiseOutcomes> {
+
+    private final Object[] outcomes;
+
+    private final AtomicLongArray rejected;
+
+    private final AtomicInteger remaining;
+
+    public PromiseAllSettled(Object[] values, PromiseCallbacks<PromiseOutcomes> promiseCallbacks) {
+        super("allSettled", values, promiseCallbacks);
+        this.outcomes = new Object[values.length];
+        this.rejected = new AtomicLongArray((values.length + 63) >>> 6);
+        this.remaining = new AtomicInteger(values.length);
+        if (values.length == 0) {
+            promiseCallbacks.resolve(new PromiseOutcomes(outcomes, rejected));
+        } else {
+            subscribe(values);
+        }
+    }
+
+    @Override
+    void onResolved(int index, Object value) {
+        outcomes[index] = value;
+        countDown();
+    }
+
+    @Override
+    void onRejected(int index, Throwable exception) {
+        outcomes[index] = exception;
+        int word = index >>> 6;
+        long bit = 1L << index;
+        long bits;
+        do {
+            bits = rejected.get(word);
+        } while (!rejected.compareAndSet(word, bits, bits | bit));
+        countDown();
+    }
+
+    private void countDown() {
+        if (remaining.decrementAndGet() == 0) {
+            promiseCallbacks.resolve(new PromiseOutcomes(outcomes, rejected));
+        }
+    }
+
+}
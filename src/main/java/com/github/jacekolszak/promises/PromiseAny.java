@@ -0,0 +1,38 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+class PromiseAny extends PromiseCombinator<Object> {
+
+    private final Throwable[] exceptions;
+
+    private final AtomicInteger remaining;
+
+    public PromiseAny(Object[] values, PromiseCallbacks<Object> promiseCallbacks) {
+        super("any", values, promiseCallbacks);
+        this.exceptions = new Throwable[values.length];
+        this.remaining = new AtomicInteger(values.length);
+        if (values.length == 0) {
+            promiseCallbacks.reject(new AggregateException(exceptions));
+        } else {
+            subscribe(values);
+        }
+    }
+
+    @Override
+    void onResolved(int index, Object value) {
+        if (!isDone()) {
+            promiseCallbacks.resolve(value);
+            finish();
+        }
+    }
+
+    @Override
+    void onRejected(int index, Throwable exception) {
+        exceptions[index] = exception;
+        if (remaining.decrementAndGet() == 0) {
+            promiseCallbacks.reject(new AggregateException(exceptions));
+        }
+    }
+
+}
@@ -0,0 +1,19 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Exception rejecting a Promise created by a static Promise method with invalid arguments, like
+ * {@link Promise#race(Object...)} with no promises. The stack trace is not filled in, unless
+ * "com.github.jacekolszak.promises.stackTraces" system property is set to true.
+ */
+public class PromiseArgumentException extends IllegalArgumentException {
+
+    PromiseArgumentException(String message) {
+        super(message);
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return StackTraces.ENABLED ? super.fillInStackTrace() : this;
+    }
+
+}
@@ -0,0 +1,344 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of promises returned by a loader. Concurrent callers requesting the same key get the same Promise, so each
+ * value is loaded only once, even if it is still being loaded (single-flight). Resolved values are kept until their
+ * time to live elapses or they are evicted because the cache is full, least recently used first. Rejected promises
+ * are removed immediately, so the next request loads the value again.
+ * <p>
+ * PromiseCache is thread safe and lock-free - neither requesting values nor loading them blocks a thread. Order of
+ * entries is maintained by one thread at a time, which handles accesses recorded by other threads in the meantime.
+ * Under heavy load some reads may not be recorded, therefore eviction order is approximately least recently used.
+ * <p>
+ * Returned promises are shared by all callers requesting the same key - cancelling one of them removes it from the
+ * cache and cancels the loading for all callers.
+ *
+ * @param <K> Type of keys
+ * @param <V> Type of cached values
+ */
+public class PromiseCache<K, V> {
+
+    private static final int READ_BUFFER_SIZE = 64;
+
+    private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+
+    private final CheckedFunction<K, Thenable<V>> loader;
+
+    private final int maxSize;
+
+    private final long timeToLiveNanos;
+
+    private final ConcurrentHashMap<K, Entry<K, V>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Entries added or removed, which order was not updated yet
+     */
+    private final ConcurrentLinkedQueue<Entry<K, V>> writes = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Lossy ring buffer of recently read entries - slot can be overwritten before maintenance handles it
+     */
+    private final AtomicReferenceArray<Entry<K, V>> reads = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+
+    private final AtomicLong readIndex = new AtomicLong();
+
+    /**
+     * Number of maintenance requests not handled yet. Only the thread which increments it from 0 maintains the order.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder loadSuccesses = new LongAdder();
+
+    private final LongAdder loadFailures = new LongAdder();
+
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    // fields below are accessed only by the maintaining thread
+
+    private long readDrainIndex;
+
+    /**
+     * Least recently used entry, linked to more recently used ones using {@link Entry#next}
+     */
+    private Entry<K, V> head;
+
+    private Entry<K, V> tail;
+
+    private int linkedCount;
+
+    /**
+     * @param loader     Function loading the value of a key. When it throws an exception or the returned Thenable is
+     *                   rejected then the Promise is rejected and removed from the cache.
+     * @param maxSize    Maximum number of cached entries, including the ones being loaded. Entries being loaded are
+     *                   not evicted, so the cache grows above it while more values are being loaded at once.
+     * @param timeToLive Time in millis since a value was loaded after which it is loaded again. Long.MAX_VALUE for
+     *                   values which never expire.
+     * @throws IllegalArgumentException When loader is null, maxSize is not positive or timeToLive is negative
+     */
+    public PromiseCache(CheckedFunction<K, Thenable<V>> loader, int maxSize, long timeToLive) {
+        if (loader == null) throw new IllegalArgumentException("Loader cannot be null");
+        if (maxSize < 1) throw new IllegalArgumentException("Max size must be positive");
+        if (timeToLive < 0) throw new IllegalArgumentException("Time to live cannot be negative");
+        this.loader = loader;
+        this.maxSize = maxSize;
+        this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLive);
+    }
+
+    /**
+     * Get the cached Promise or load the value if the key is not cached or its value expired
+     *
+     * @throws IllegalArgumentException When key is null
+     */
+    public Promise<V> get(K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        for (; ; ) {
+            Entry<K, V> entry = entries.get(key);
+            if (entry == null) {
+                Entry<K, V> created = new Entry<>(this, key);
+                entry = entries.putIfAbsent(key, created);
+                if (entry == null) {
+                    misses.increment();
+                    written(created);
+                    created.load();
+                    return created.promise;
+                }
+            }
+            if (!entry.isExpired(System.nanoTime())) {
+                hits.increment();
+                read(entry);
+                return entry.promise;
+            }
+            if (entries.remove(key, entry)) {
+                written(entry);
+            }
+        }
+    }
+
+    /**
+     * Remove the key from the cache. Promise returned earlier is not affected.
+     */
+    public void invalidate(K key) {
+        if (key == null) throw new IllegalArgumentException("Key cannot be null");
+        Entry<K, V> entry = entries.remove(key);
+        if (entry != null) {
+            written(entry);
+        }
+    }
+
+    /**
+     * @return Number of cached entries, including expired ones which were not removed yet
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return Number of requests which returned a cached Promise, either resolved or still being loaded
+     */
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return Number of requests which started loading a value
+     */
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long loadSuccessCount() {
+        return loadSuccesses.sum();
+    }
+
+    public long loadFailureCount() {
+        return loadFailures.sum();
+    }
+
+    /**
+     * @return Total time spent loading values, both resolved and rejected, in nanoseconds
+     */
+    public long totalLoadTime() {
+        return totalLoadTime.sum();
+    }
+
+    private void read(Entry<K, V> entry) {
+        long index = readIndex.getAndIncrement();
+        reads.lazySet((int) index & READ_BUFFER_MASK, entry);
+        if ((index & (READ_BUFFER_SIZE / 2 - 1)) == 0) {
+            maintain();
+        }
+    }
+
+    private void written(Entry<K, V> entry) {
+        writes.add(entry);
+        maintain();
+    }
+
+    private void maintain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            drainReads();
+            drainWrites();
+            evict();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void drainReads() {
+        long end = readIndex.get();
+        for (long i = Math.max(readDrainIndex, end - READ_BUFFER_SIZE); i < end; i++) {
+            Entry<K, V> entry = reads.getAndSet((int) i & READ_BUFFER_MASK, null);
+            if (entry != null && entry.linked) {
+                unlink(entry);
+                link(entry);
+            }
+        }
+        readDrainIndex = end;
+    }
+
+    private void drainWrites() {
+        Entry<K, V> entry;
+        while ((entry = writes.poll()) != null) {
+            boolean present = entries.get(entry.key) == entry;
+            if (present && !entry.linked) {
+                link(entry);
+            } else if (!present && entry.linked) {
+                unlink(entry);
+            }
+        }
+    }
+
+    /**
+     * Evict least recently used entries which are loaded. Entries still being loaded are skipped, so that a caller
+     * requesting the same key gets the same Promise instead of loading the value again - they are evicted once
+     * loaded, if the cache is still full.
+     */
+    private void evict() {
+        Entry<K, V> entry = head;
+        while (linkedCount > maxSize && entry != null) {
+            Entry<K, V> next = entry.next;
+            if (entry.loaded) {
+                unlink(entry);
+                entries.remove(entry.key, entry);
+            }
+            entry = next;
+        }
+    }
+
+    private void link(Entry<K, V> entry) {
+        entry.previous = tail;
+        if (tail != null) {
+            tail.next = entry;
+        } else {
+            head = entry;
+        }
+        tail = entry;
+        entry.linked = true;
+        linkedCount++;
+    }
+
+    private void unlink(Entry<K, V> entry) {
+        if (entry.previous != null) {
+            entry.previous.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.previous = entry.previous;
+        } else {
+            tail = entry.previous;
+        }
+        entry.previous = null;
+        entry.next = null;
+        entry.linked = false;
+        linkedCount--;
+    }
+
+    /**
+     * Cached Promise and the dependent observing its outcome
+     */
+    private static class Entry<K, V> extends Promise<Object> {
+
+        private final PromiseCache<K, V> cache;
+
+        private final K key;
+
+        private final Promise<V> promise = new Promise<>();
+
+        private long loadStartTime;
+
+        /**
+         * System.nanoTime() after which the value is expired. Published by {@link Entry#loaded}.
+         */
+        private long expirationTime;
+
+        private volatile boolean loaded;
+
+        // fields below are accessed only by the maintaining thread
+
+        private boolean linked;
+
+        private Entry<K, V> previous;
+
+        private Entry<K, V> next;
+
+        Entry(PromiseCache<K, V> cache, K key) {
+            super(false);
+            this.cache = cache;
+            this.key = key;
+        }
+
+        void load() {
+            loadStartTime = System.nanoTime();
+            promise.addNext(this);
+            try {
+                promise.setResult(cache.loader.apply(key));
+            } catch (Throwable e) {
+                promise.setException(e);
+            }
+        }
+
+        boolean isExpired(long now) {
+            return loaded && cache.timeToLiveNanos != Long.MAX_VALUE && now - expirationTime > 0;
+        }
+
+        @Override
+        void doResolve(Object result) {
+            long now = System.nanoTime();
+            cache.totalLoadTime.add(now - loadStartTime);
+            cache.loadSuccesses.increment();
+            expirationTime = now + cache.timeToLiveNanos;
+            loaded = true;
+            if (cache.entries.size() > cache.maxSize) {
+                // skipped by eviction while being loaded
+                cache.maintain();
+            }
+        }
+
+        @Override
+        void doReject(Throwable exception) {
+            cache.totalLoadTime.add(System.nanoTime() - loadStartTime);
+            cache.loadFailures.increment();
+            if (cache.entries.remove(key, this)) {
+                cache.written(this);
+            }
+        }
+
+    }
+
+}
@@ -31,4 +31,23 @@ public class PromiseCallbacks<RESULT> {
         promise.doReject(exception);
     }
 
+    /**
+     * @return true when the Promise was cancelled, so its value is no longer needed
+     * @see Promise#cancel()
+     */
+    public boolean isCancelled() {
+        return promise.isCancelled();
+    }
+
+    /**
+     * Run the callback when the Promise is cancelled, i.e. to abort the operation which was supposed to resolve it.
+     * Callback is executed immediately when the Promise is already cancelled.
+     *
+     * @see Promise#cancel()
+     */
+    public void onCancel(Runnable callback) {
+        if (callback == null) throw new IllegalArgumentException("Cancel callback cannot be null");
+        promise.addNext(new CancellationCallback(callback));
+    }
+
 }
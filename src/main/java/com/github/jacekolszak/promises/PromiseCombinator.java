@@ -0,0 +1,110 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Common part of static Promise methods combining many promises or values into one Promise: subscribing to passed
+ * values and cancelling promises which are no longer awaited.
+ *
+ * @param <RESULT> Type of combined Promise value
+ */
+abstract class PromiseCombinator<RESULT> {
+
+    final PromiseCallbacks<RESULT> promiseCallbacks;
+
+    /**
+     * Dependents registered on passed promises, null for other values
+     */
+    private final Element[] elements;
+
+    private volatile boolean done;
+
+    /**
+     * @param method Name of the Promise method used in error messages
+     */
+    PromiseCombinator(String method, Object[] values, PromiseCallbacks<RESULT> promiseCallbacks) {
+        if (values == null) {
+            throw new PromiseArgumentException("Null array passed to Promise." + method);
+        }
+        this.promiseCallbacks = promiseCallbacks;
+        this.elements = new Element[values.length];
+        promiseCallbacks.onCancel(this::finish);
+    }
+
+    /**
+     * Subscribe to all values, in order, until combined Promise is done. Values which are neither promises nor
+     * thenables are passed to {@link PromiseCombinator#onResolved(int, Object)} immediately.
+     */
+    final void subscribe(Object[] values) {
+        for (int i = 0; i < values.length && !done; i++) {
+            subscribe(i, values[i]);
+        }
+    }
+
+    private void subscribe(int index, Object value) {
+        if (value instanceof Promise) {
+            Element element = new Element(this, index);
+            elements[index] = element;
+            ((Promise<?>) value).addNext(element);
+        } else if (value instanceof Thenable) {
+            Thenable<?> thenable = (Thenable<?>) value;
+            thenable.then(response -> onResolved(index, response));
+            thenable.catchVoid(exception -> onRejected(index, exception));
+        } else {
+            onResolved(index, value);
+        }
+    }
+
+    abstract void onResolved(int index, Object value);
+
+    abstract void onRejected(int index, Throwable exception);
+
+    /**
+     * @return true when combined Promise is already settled, or no longer needs results
+     */
+    final boolean isDone() {
+        return done;
+    }
+
+    /**
+     * Stop waiting for passed promises, which cancels the ones nobody else waits for
+     */
+    final void finish() {
+        done = true;
+        for (Element element : elements) {
+            if (element != null) {
+                element.cancel();
+            }
+        }
+    }
+
+    /**
+     * Dependent of a Promise passed to the combinator
+     */
+    private static class Element extends Promise<Object> {
+
+        private final PromiseCombinator<?> combinator;
+
+        private final int index;
+
+        Element(PromiseCombinator<?> combinator, int index) {
+            super(false);
+            this.combinator = combinator;
+            this.index = index;
+        }
+
+        @Override
+        void doResolve(Object result) {
+            if (isPending()) {
+                combinator.onResolved(index, result);
+            }
+        }
+
+        @Override
+        void doReject(Throwable exception) {
+            if (isPending()) {
+                combinator.onRejected(index, exception);
+            }
+        }
+
+    }
+
+}
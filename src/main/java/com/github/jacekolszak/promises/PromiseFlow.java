@@ -0,0 +1,178 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * Publishers of values of many promises, emitted as soon as they are available instead of being collected like
+ * {@link Promise#all(Object...)} does. Subscriber controls the pace using {@link Subscription#request(long)}:
+ * the next Thenable is pulled from the source - and so the operation returning it is started - only when
+ * the subscriber requested more values than were already pulled, and at most {@code maxInFlight} of pulled values
+ * are not emitted yet. A rejected Thenable terminates the stream with {@link Subscriber#onError(Throwable)}, and
+ * pending ones are cancelled - so are they when the subscription is cancelled.
+ * <p>
+ * Interfaces mirror {@code java.util.concurrent.Flow} of Java 9 and Reactive Streams, which are not available in
+ * Java 8 without a dependency, and follow their rules - so they can be adapted with a few delegating methods:
+ * <pre>{@code
+ * PromiseFlow.Publisher<String> publisher = PromiseFlow.from(urls.stream().map(this::get).iterator(), 8, SOURCE);
+ * publisher.subscribe(subscriber);
+ * }</pre>
+ */
+public final class PromiseFlow {
+
+    private PromiseFlow() {
+    }
+
+    /**
+     * Order of emitted values
+     */
+    public enum Order {
+        /**
+         * Values are emitted in order of resolution
+         */
+        COMPLETION,
+        /**
+         * Values are emitted in order of Thenables in the source - value of a Thenable resolved early waits for
+         * values of Thenables pulled before it
+         */
+        SOURCE
+    }
+
+    /**
+     * Producer of values received by subscribers, same as {@code java.util.concurrent.Flow.Publisher}
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Add the subscriber, which is first given its Subscription using {@link Subscriber#onSubscribe(Subscription)}
+         *
+         * @throws NullPointerException When subscriber is null
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+
+    }
+
+    /**
+     * Receiver of values. Methods are executed in sequence: onSubscribe, then any number of onNext - no more than
+     * requested - and then at most one of onError or onComplete. Same as
+     * {@code java.util.concurrent.Flow.Subscriber}.
+     */
+    public interface Subscriber<T> {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(T item);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+
+    }
+
+    /**
+     * Link between a Publisher and a Subscriber, same as {@code java.util.concurrent.Flow.Subscription}
+     */
+    public interface Subscription {
+
+        /**
+         * Add n values to the number of values the subscriber is ready to receive. Not positive n terminates the
+         * stream with {@link IllegalArgumentException}.
+         */
+        void request(long n);
+
+        /**
+         * Stop receiving values, eventually. Pending Thenables are cancelled.
+         */
+        void cancel();
+
+    }
+
+    /**
+     * Create a Publisher of values of Thenables returned by a new iterator of the source, for each subscriber. Neither
+     * {@link Iterator#hasNext()} nor {@link Iterator#next()} is executed before the subscriber requested the next
+     * value, so an iterator of a lazily mapped stream doesn't start operations too early, and the stream is completed
+     * once the subscriber requested more values than there are. Iterator is never used by two threads at the same
+     * time.
+     *
+     * @param maxInFlight Maximum number of pulled Thenables whose values were not emitted yet
+     * @throws IllegalArgumentException When thenables or order is null, or maxInFlight is not positive
+     */
+    public static <T> Publisher<T> from(Iterable<? extends Thenable<? extends T>> thenables, int maxInFlight,
+                                        Order order) {
+        if (thenables == null) throw new IllegalArgumentException("Thenables cannot be null");
+        validate(maxInFlight, order);
+        return subscriber -> {
+            if (subscriber == null) throw new NullPointerException("Subscriber cannot be null");
+            Iterator<? extends Thenable<? extends T>> iterator;
+            try {
+                iterator = thenables.iterator();
+            } catch (Throwable e) {
+                reject(subscriber, e);
+                return;
+            }
+            PromiseFlowSubscription.subscribe(iterator, maxInFlight, order, subscriber);
+        };
+    }
+
+    /**
+     * Same as {@link PromiseFlow#from(Iterable, int, Order)}, but for a single iterator - therefore created
+     * Publisher can be subscribed only once. Other subscribers receive {@link IllegalStateException}.
+     *
+     * @param maxInFlight Maximum number of pulled Thenables whose values were not emitted yet
+     * @throws IllegalArgumentException When thenables or order is null, or maxInFlight is not positive
+     */
+    public static <T> Publisher<T> from(Iterator<? extends Thenable<? extends T>> thenables, int maxInFlight,
+                                        Order order) {
+        if (thenables == null) throw new IllegalArgumentException("Thenables cannot be null");
+        validate(maxInFlight, order);
+        AtomicBoolean subscribed = new AtomicBoolean();
+        return subscriber -> {
+            if (subscriber == null) throw new NullPointerException("Subscriber cannot be null");
+            if (subscribed.compareAndSet(false, true)) {
+                PromiseFlowSubscription.subscribe(thenables, maxInFlight, order, subscriber);
+            } else {
+                reject(subscriber, new IllegalStateException("Publisher of an iterator can be subscribed only once"));
+            }
+        };
+    }
+
+    /**
+     * Create a Publisher of values of Thenables returned by the supplier. Supplier returns null when there are no
+     * more Thenables - it is executed only when the subscriber requested another value, so the stream is completed
+     * once the subscriber requested more values than there are. Supplier is shared by all subscribers, but never
+     * executed by two threads at the same time for the same subscriber.
+     *
+     * @param maxInFlight Maximum number of Thenables returned by the supplier whose values were not emitted yet
+     * @throws IllegalArgumentException When supplier or order is null, or maxInFlight is not positive
+     */
+    public static <T> Publisher<T> generate(Supplier<? extends Thenable<? extends T>> supplier, int maxInFlight,
+                                            Order order) {
+        if (supplier == null) throw new IllegalArgumentException("Supplier cannot be null");
+        validate(maxInFlight, order);
+        return subscriber -> {
+            if (subscriber == null) throw new NullPointerException("Subscriber cannot be null");
+            PromiseFlowSubscription.subscribe(supplier, maxInFlight, order, subscriber);
+        };
+    }
+
+    private static void validate(int maxInFlight, Order order) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("maxInFlight must be positive but was " + maxInFlight);
+        if (order == null) throw new IllegalArgumentException("Order cannot be null");
+    }
+
+    private static void reject(Subscriber<?> subscriber, Throwable exception) {
+        subscriber.onSubscribe(new Subscription() {
+            @Override
+            public void request(long n) {
+            }
+
+            @Override
+            public void cancel() {
+            }
+        });
+        subscriber.onError(exception);
+    }
+
+}
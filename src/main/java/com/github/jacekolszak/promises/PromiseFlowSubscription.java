@@ -0,0 +1,248 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Subscription pulling Thenables from the source only when the subscriber requested their values. Values are emitted
+ * by the thread draining the mapping, so {@link PromiseFlow.Subscriber#onNext(Object)} is never executed by two
+ * threads at the same time, and the subscriber requesting more from onNext doesn't grow the stack. The stream is
+ * terminated once the Promise of the mapping is settled.
+ */
+class PromiseFlowSubscription<T> extends PromiseMapping<Thenable<? extends T>, T, Void>
+        implements PromiseFlow.Subscription {
+
+    private final Promise<Void> completion;
+
+    private final int maxInFlight;
+
+    /**
+     * Total number of requested values, Long.MAX_VALUE when unbounded
+     */
+    private final AtomicLong requested = new AtomicLong();
+
+    /**
+     * Null once cancelled
+     */
+    private volatile PromiseFlow.Subscriber<? super T> subscriber;
+
+    // fields below are accessed only by the draining thread
+
+    private final DemandIterator<T> thenables;
+
+    private long started;
+
+    private long emitted;
+
+    /**
+     * Values resolved out of order waiting to be emitted, indexed by the index of the input modulo the length, which
+     * is a power of 2 not lower than maxInFlight. Null when order is {@link PromiseFlow.Order#COMPLETION}.
+     */
+    private final Object[] resolved;
+
+    static <T> void subscribe(Iterator<? extends Thenable<? extends T>> thenables, int maxInFlight,
+                              PromiseFlow.Order order, PromiseFlow.Subscriber<? super T> subscriber) {
+        new PromiseFlowSubscription<>(new DemandIterator<>(thenables), maxInFlight, order, subscriber,
+                new Promise<>()).start(subscriber);
+    }
+
+    static <T> void subscribe(Supplier<? extends Thenable<? extends T>> supplier, int maxInFlight,
+                              PromiseFlow.Order order, PromiseFlow.Subscriber<? super T> subscriber) {
+        subscribe(new SupplierIterator<>(supplier), maxInFlight, order, subscriber);
+    }
+
+    private PromiseFlowSubscription(DemandIterator<T> thenables, int maxInFlight, PromiseFlow.Order order,
+                                    PromiseFlow.Subscriber<? super T> subscriber, Promise<Void> completion) {
+        super("flow", () -> thenables, maxInFlight, new PromiseCallbacks<>(completion));
+        this.completion = completion;
+        this.maxInFlight = maxInFlight;
+        this.subscriber = subscriber;
+        this.thenables = thenables;
+        this.resolved = order == PromiseFlow.Order.SOURCE ? new Object[powerOfTwoNotLowerThan(maxInFlight)] : null;
+        thenables.subscription = this;
+    }
+
+    private static int powerOfTwoNotLowerThan(int value) {
+        int power = Integer.highestOneBit(value);
+        return power < value ? power << 1 : power;
+    }
+
+    private void start(PromiseFlow.Subscriber<? super T> subscriber) {
+        completion.then(v -> {
+            PromiseFlow.Subscriber<? super T> current = this.subscriber;
+            if (current != null) {
+                this.subscriber = null;
+                current.onComplete();
+            }
+        });
+        completion.catchVoid(e -> {
+            PromiseFlow.Subscriber<? super T> current = this.subscriber;
+            if (current != null) {
+                this.subscriber = null;
+                current.onError(e);
+            }
+        });
+        subscriber.onSubscribe(this);
+        start();
+    }
+
+    @Override
+    public void request(long n) {
+        if (n <= 0) {
+            abort(new IllegalArgumentException("Requested number of values must be positive but was " + n));
+        } else {
+            requested.accumulateAndGet(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+    }
+
+    @Override
+    public void cancel() {
+        if (subscriber != null) {
+            subscriber = null;
+            completion.cancel();
+        }
+    }
+
+    /**
+     * Checked after {@link Iterator#hasNext()}, which pulls the next Thenable from the source only when there is
+     * demand
+     */
+    @Override
+    boolean canStart() {
+        return thenables.pulled;
+    }
+
+    /**
+     * @return true when the subscriber requested more values than were pulled and fewer than maxInFlight pulled
+     * values are waiting to be emitted
+     */
+    private boolean hasDemand() {
+        return started < requested.get() && started - emitted < maxInFlight;
+    }
+
+    @Override
+    Thenable<? extends T> map(Thenable<? extends T> thenable) {
+        return thenable;
+    }
+
+    @Override
+    void onStarted(int index) {
+        started++;
+    }
+
+    @Override
+    void onResolved(int index, T value) {
+        if (value == null) throw new NullPointerException("Thenable resolved with null, which can't be emitted");
+        if (resolved == null) {
+            emit(value);
+            return;
+        }
+        int mask = resolved.length - 1;
+        resolved[index & mask] = value;
+        Object next;
+        while ((next = resolved[(int) emitted & mask]) != null) {
+            resolved[(int) emitted & mask] = null;
+            emit(next);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void emit(Object value) {
+        emitted++;
+        PromiseFlow.Subscriber<? super T> current = subscriber;
+        if (current != null) {
+            current.onNext((T) value);
+        }
+    }
+
+    @Override
+    Void result() {
+        return null;
+    }
+
+    /**
+     * Iterator pulling the next Thenable from the source only when the subscriber requested another value, so that
+     * the operation is not started too early just to find out if there is one - an iterator of a lazily mapped
+     * stream starts it in {@link Iterator#hasNext()}. Until then, there may be more Thenables.
+     */
+    private static class DemandIterator<T> implements Iterator<Thenable<? extends T>> {
+
+        private final Iterator<? extends Thenable<? extends T>> source;
+
+        private PromiseFlowSubscription<T> subscription;
+
+        /**
+         * True when the next Thenable was pulled from the source but not returned yet
+         */
+        private boolean pulled;
+
+        private Thenable<? extends T> next;
+
+        private boolean ended;
+
+        DemandIterator(Iterator<? extends Thenable<? extends T>> source) {
+            this.source = source;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!pulled && !ended && subscription.hasDemand()) {
+                if (source.hasNext()) {
+                    next = source.next();
+                    pulled = true;
+                } else {
+                    ended = true;
+                }
+            }
+            return !ended;
+        }
+
+        @Override
+        public Thenable<? extends T> next() {
+            if (!hasNext() || !pulled) throw new NoSuchElementException();
+            Thenable<? extends T> thenable = next;
+            next = null;
+            pulled = false;
+            return thenable;
+        }
+
+    }
+
+    /**
+     * Iterator of Thenables returned by the supplier, until it returns null
+     */
+    private static class SupplierIterator<T> implements Iterator<Thenable<? extends T>> {
+
+        private final Supplier<? extends Thenable<? extends T>> supplier;
+
+        private Thenable<? extends T> next;
+
+        private boolean ended;
+
+        SupplierIterator(Supplier<? extends Thenable<? extends T>> supplier) {
+            this.supplier = supplier;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null && !ended) {
+                next = supplier.get();
+                ended = next == null;
+            }
+            return !ended;
+        }
+
+        @Override
+        public Thenable<? extends T> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            Thenable<? extends T> thenable = next;
+            next = null;
+            return thenable;
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Service provider interface notified about lifecycle of promises, i.e. to collect metrics. Only promises created
+ * while the instrumentation is installed are reported. Internal objects used to wait for promises (i.e. by
+ * {@link Promise#all(Object...)}) are not reported.
+ * <p>
+ * Methods are executed synchronously by the thread creating, settling the Promise or executing its callback,
+ * therefore they should be fast and must be thread safe. Exceptions thrown by them are passed to the uncaught
+ * exception handler of the current thread. When no instrumentation is installed, promises don't execute any extra
+ * code except a single null check.
+ *
+ * @see PromiseMetrics
+ */
+public interface PromiseInstrumentation {
+
+    /**
+     * Install the instrumentation. Promises created before, while other instrumentation was installed, are reported
+     * to the new one when they settle, with contexts returned by the previous one - instrumentation should ignore
+     * contexts it doesn't recognize.
+     *
+     * @param instrumentation When null then instrumentation is disabled
+     */
+    static void install(PromiseInstrumentation instrumentation) {
+        Instrumentation.current = instrumentation;
+    }
+
+    /**
+     * Executed when a Promise is created, before its executor code. Promise is not fully constructed yet, so it
+     * should only be used as an identity.
+     *
+     * @return Context passed to {@link PromiseInstrumentation#settled(Promise, Object, boolean)}, i.e. creation time
+     */
+    default Object created(Promise<?> promise) {
+        return null;
+    }
+
+    /**
+     * Executed when a Promise is resolved or rejected, before its dependents are executed
+     *
+     * @param context Object returned by {@link PromiseInstrumentation#created(Promise)}
+     */
+    default void settled(Promise<?> promise, Object context, boolean resolved) {
+    }
+
+    /**
+     * Executed before the "then" or "catch" callback is executed
+     *
+     * @param promise Promise returned by the method registering the callback
+     * @return Context passed to {@link PromiseInstrumentation#callbackEnded(Promise, Object, Throwable)}
+     */
+    default Object callbackStarted(Promise<?> promise) {
+        return null;
+    }
+
+    /**
+     * Executed after the "then" or "catch" callback is executed
+     *
+     * @param context   Object returned by {@link PromiseInstrumentation#callbackStarted(Promise)}
+     * @param exception Exception thrown by the callback or null
+     */
+    default void callbackEnded(Promise<?> promise, Object context, Throwable exception) {
+    }
+
+}
@@ -0,0 +1,264 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Limiter of asynchronous operations: a bulkhead limiting the number of operations in flight - started but not
+ * settled yet - optionally combined with a token bucket limiting the rate of starting them. Submitted operations
+ * which cannot be started immediately wait in a queue and are started, in order of submission, as soon as capacity
+ * frees up. When the queue is full, submitted operations are rejected immediately with
+ * {@link LimitExceededException}.
+ * <p>
+ * PromiseLimiter is thread safe and lock-free - submitting operations never blocks a thread. Operations are started
+ * by one thread at a time: the one which submitted the operation, settled the previous one, or - when waiting for
+ * the rate limit - by the default executor (see {@link Timers#setDefaultExecutor(java.util.concurrent.Executor)}).
+ */
+public class PromiseLimiter {
+
+    private final int maxInFlight;
+
+    private final int maxAdmitted;
+
+    /**
+     * Double.POSITIVE_INFINITY when the rate is not limited
+     */
+    private final double permitsPerNano;
+
+    private final int burst;
+
+    private final ConcurrentLinkedQueue<Task<?>> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Operations waiting in the queue or in flight
+     */
+    private final AtomicInteger admitted = new AtomicInteger();
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * Number of start requests not handled yet. Only the thread which increments it from 0 starts operations.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile boolean waitingForPermit;
+
+    // fields below are accessed only by the starting thread
+
+    private double permits;
+
+    /**
+     * System.nanoTime() of the last refill of permits
+     */
+    private long refillTime;
+
+    /**
+     * Create a limiter which doesn't limit the rate of starting operations.
+     *
+     * @see PromiseLimiter#PromiseLimiter(int, int, double, int)
+     */
+    public PromiseLimiter(int maxInFlight, int maxQueued) {
+        this(maxInFlight, maxQueued, Double.POSITIVE_INFINITY, 1);
+    }
+
+    /**
+     * @param maxInFlight      Maximum number of operations started but not settled yet
+     * @param maxQueued        Maximum number of operations waiting to be started. 0 rejects operations which cannot
+     *                         be started immediately.
+     * @param permitsPerSecond Rate of starting operations. Double.POSITIVE_INFINITY when the rate is not limited.
+     * @param burst            Maximum number of operations started at once after a period of inactivity - the
+     *                         capacity of the token bucket
+     * @throws IllegalArgumentException When maxInFlight, permitsPerSecond or burst is not positive or maxQueued is
+     *                                  negative
+     */
+    public PromiseLimiter(int maxInFlight, int maxQueued, double permitsPerSecond, int burst) {
+        if (maxInFlight < 1) throw new IllegalArgumentException("Max in flight must be positive");
+        if (maxQueued < 0) throw new IllegalArgumentException("Max queued cannot be negative");
+        if (!(permitsPerSecond > 0)) throw new IllegalArgumentException("Permits per second must be positive");
+        if (burst < 1) throw new IllegalArgumentException("Burst must be positive");
+        this.maxInFlight = maxInFlight;
+        this.maxAdmitted = (int) Math.min(Integer.MAX_VALUE, (long) maxInFlight + maxQueued);
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.burst = burst;
+        this.permits = burst;
+        this.refillTime = System.nanoTime();
+    }
+
+    /**
+     * Start the operation now, or as soon as the limits allow. Cancelling returned Promise cancels the Thenable
+     * returned by the operation when it was already started. Cancelled operation waiting in the queue is never
+     * started, but it is counted as queued until it leaves the queue - when it would be started - so that
+     * {@code maxQueued} always bounds the queue.
+     *
+     * @param operation Operation returning a Thenable. Operation is in flight until the Thenable is settled.
+     * @return Promise settled the same way as the Thenable returned by the operation, rejected with the exception
+     * thrown by the operation, or rejected immediately with {@link LimitExceededException} when the queue is full
+     * @throws IllegalArgumentException When operation is null
+     */
+    public <RESULT> Promise<RESULT> submit(Supplier<? extends Thenable<RESULT>> operation) {
+        if (operation == null) throw new IllegalArgumentException("Operation cannot be null");
+        if (admitted.incrementAndGet() > maxAdmitted) {
+            admitted.decrementAndGet();
+            rejected.increment();
+            return new RejectedPromise<>(new LimitExceededException(
+                    "Limit of " + maxInFlight + " operations in flight and " + (maxAdmitted - maxInFlight) +
+                            " queued exceeded"));
+        }
+        Task<RESULT> task = new Task<>(this, operation);
+        queue.add(task);
+        drain();
+        return task;
+    }
+
+    /**
+     * @return Number of operations started but not settled yet
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return Number of operations waiting to be started, including cancelled ones which haven't left the queue yet
+     */
+    public int queued() {
+        return Math.max(0, admitted.get() - inFlight.get());
+    }
+
+    /**
+     * @return Number of operations rejected because the queue was full
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            startQueued();
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void startQueued() {
+        while (inFlight.get() < maxInFlight && !queue.isEmpty() && !waitingForPermit) {
+            if (!hasPermit()) {
+                waitForPermit();
+                return;
+            }
+            Task<?> task = queue.poll();
+            if (task == null) {
+                return;
+            }
+            inFlight.incrementAndGet();
+            if (!Task.PHASE.compareAndSet(task, Task.QUEUED, Task.STARTED)) {
+                // cancelled while waiting in the queue, admitted until now
+                inFlight.decrementAndGet();
+                admitted.decrementAndGet();
+                continue;
+            }
+            permits--;
+            task.start();
+        }
+    }
+
+    private boolean hasPermit() {
+        if (permitsPerNano == Double.POSITIVE_INFINITY) {
+            return true;
+        }
+        long now = System.nanoTime();
+        permits = Math.min(burst, permits + (now - refillTime) * permitsPerNano);
+        refillTime = now;
+        return permits >= 1;
+    }
+
+    private void waitForPermit() {
+        waitingForPermit = true;
+        long delay = (long) Math.ceil((1 - permits) / permitsPerNano / TimeUnit.MILLISECONDS.toNanos(1));
+        Timers.timer.schedule(() -> Timers.defaultExecutor().execute(() -> {
+            waitingForPermit = false;
+            drain();
+        }), delay);
+    }
+
+    private void finished() {
+        inFlight.decrementAndGet();
+        admitted.decrementAndGet();
+        drain();
+    }
+
+    /**
+     * Promise of a submitted operation
+     */
+    private static class Task<RESULT> extends Promise<RESULT> {
+
+        static final AtomicIntegerFieldUpdater<Task> PHASE = AtomicIntegerFieldUpdater.newUpdater(Task.class, "phase");
+
+        static final int QUEUED = 0;
+
+        static final int STARTED = 1;
+
+        static final int SETTLED_IN_QUEUE = 2;
+
+        private final PromiseLimiter limiter;
+
+        /**
+         * Null once started or settled in the queue
+         */
+        private Supplier<? extends Thenable<RESULT>> operation;
+
+        /**
+         * One of QUEUED, STARTED or SETTLED_IN_QUEUE
+         */
+        private volatile int phase;
+
+        Task(PromiseLimiter limiter, Supplier<? extends Thenable<RESULT>> operation) {
+            this.limiter = limiter;
+            this.operation = operation;
+        }
+
+        void start() {
+            Supplier<? extends Thenable<RESULT>> operation = this.operation;
+            this.operation = null;
+            if (!isPending()) {
+                // cancelled just before it was started
+                return;
+            }
+            Thenable<RESULT> thenable;
+            try {
+                thenable = operation.get();
+            } catch (Throwable e) {
+                setException(e);
+                return;
+            }
+            if (thenable != null) {
+                setResult(thenable);
+            } else {
+                setException(new IllegalStateException("Submitted operation returned null"));
+            }
+        }
+
+        /**
+         * Task settled while waiting in the queue is left there, instead of searching the queue for it - it is
+         * skipped, and stops being admitted, once polled
+         */
+        @Override
+        void onSettled() {
+            if (PHASE.compareAndSet(this, QUEUED, SETTLED_IN_QUEUE)) {
+                operation = null;
+            } else {
+                limiter.finished();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,44 @@
+package com.github.jacekolszak.promises;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class PromiseMap<T, R> extends PromiseMapping<T, R, List<R>> {
+
+    private final CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper;
+
+    private final List<R> results = new ArrayList<>();
+
+    /**
+     * @param method Name of the Promise method used in error messages
+     */
+    public PromiseMap(String method, Iterable<? extends T> inputs,
+                      CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper, int concurrency,
+                      PromiseCallbacks<List<R>> promiseCallbacks) {
+        super(method, inputs, concurrency, promiseCallbacks);
+        if (mapper == null) throw new PromiseArgumentException("Null mapper passed to Promise." + method);
+        this.mapper = mapper;
+        start();
+    }
+
+    @Override
+    Thenable<? extends R> map(T input) throws Throwable {
+        return mapper.apply(input);
+    }
+
+    @Override
+    void onStarted(int index) {
+        results.add(null);
+    }
+
+    @Override
+    void onResolved(int index, R value) {
+        results.set(index, value);
+    }
+
+    @Override
+    List<R> result() {
+        return results;
+    }
+
+}
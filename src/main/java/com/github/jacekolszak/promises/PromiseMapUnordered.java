@@ -0,0 +1,39 @@
+package com.github.jacekolszak.promises;
+
+class PromiseMapUnordered<T, R> extends PromiseMapping<T, R, Void> {
+
+    private final CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper;
+
+    private final CheckedConsumer<? super R> consumer;
+
+    public PromiseMapUnordered(Iterable<? extends T> inputs,
+                               CheckedFunction<? super T, ? extends Thenable<? extends R>> mapper, int concurrency,
+                               CheckedConsumer<? super R> consumer, PromiseCallbacks<Void> promiseCallbacks) {
+        super("mapUnordered", inputs, concurrency, promiseCallbacks);
+        if (mapper == null) throw new PromiseArgumentException("Null mapper passed to Promise.mapUnordered");
+        if (consumer == null) throw new PromiseArgumentException("Null consumer passed to Promise.mapUnordered");
+        this.mapper = mapper;
+        this.consumer = consumer;
+        start();
+    }
+
+    @Override
+    Thenable<? extends R> map(T input) throws Throwable {
+        return mapper.apply(input);
+    }
+
+    @Override
+    void onStarted(int index) {
+    }
+
+    @Override
+    void onResolved(int index, R value) throws Throwable {
+        consumer.accept(value);
+    }
+
+    @Override
+    Void result() {
+        return null;
+    }
+
+}
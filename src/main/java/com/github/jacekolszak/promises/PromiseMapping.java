@@ -0,0 +1,310 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Common part of static Promise methods mapping inputs to promises with bounded concurrency. Inputs are pulled
+ * lazily - the next one only when fewer than {@code concurrency} mapped promises are pending.
+ * <p>
+ * Pulling inputs and handling outcomes is done by one thread at a time, without locks: whoever settles a mapped
+ * promise pushes it to the stack of completed elements, and the thread which entered {@link PromiseMapping#drain()}
+ * first handles everything pushed in the meantime. Therefore the iterator, {@link PromiseMapping#map(Object)} and
+ * {@link PromiseMapping#onResolved(int, Object)} need not be thread safe, and the stack doesn't grow when mapped
+ * promises are settled synchronously.
+ *
+ * @param <RESULT> Type of resulting Promise value
+ */
+abstract class PromiseMapping<T, R, RESULT> {
+
+    private static final AtomicReferenceFieldUpdater<PromiseMapping, Element> COMPLETED =
+            AtomicReferenceFieldUpdater.newUpdater(PromiseMapping.class, Element.class, "completed");
+
+    final PromiseCallbacks<RESULT> promiseCallbacks;
+
+    private final Iterator<? extends T> inputs;
+
+    private final int concurrency;
+
+    /**
+     * Number of drain requests not handled yet. Only the thread which increments it from 0 drains.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    /**
+     * Top of the stack of elements settled but not handled yet, linked using {@link Element#nextCompleted}
+     */
+    private volatile Element completed;
+
+    private volatile boolean cancelled;
+
+    /**
+     * Exception passed to {@link PromiseMapping#abort(Throwable)}, null when not aborted
+     */
+    private volatile Throwable abortion;
+
+    // fields below are accessed only by the draining thread
+
+    /**
+     * Head of the list of pending elements, linked using {@link Element#nextInFlight}
+     */
+    private Element inFlight;
+
+    private int inFlightCount;
+
+    private int nextIndex;
+
+    private boolean done;
+
+    /**
+     * @param method Name of the Promise method used in error messages
+     */
+    PromiseMapping(String method, Iterable<? extends T> inputs, int concurrency,
+                   PromiseCallbacks<RESULT> promiseCallbacks) {
+        if (inputs == null) throw new PromiseArgumentException("Null inputs passed to Promise." + method);
+        if (concurrency < 1) throw new PromiseArgumentException("Concurrency passed to Promise." + method +
+                " must be positive but was " + concurrency);
+        this.promiseCallbacks = promiseCallbacks;
+        this.inputs = inputs.iterator();
+        this.concurrency = concurrency;
+        promiseCallbacks.onCancel(() -> {
+            cancelled = true;
+            drain();
+        });
+    }
+
+    /**
+     * Start pulling inputs. Should be called once the subclass is fully initialized.
+     */
+    final void start() {
+        drain();
+    }
+
+    /**
+     * Map the input to a promise. Called in order of inputs. Thrown exception rejects the resulting Promise.
+     */
+    abstract Thenable<? extends R> map(T input) throws Throwable;
+
+    /**
+     * Called when an input was mapped to a promise, in order of inputs
+     */
+    abstract void onStarted(int index);
+
+    /**
+     * Called when a mapped promise resolved, in order of resolution. Thrown exception rejects the resulting Promise.
+     */
+    abstract void onResolved(int index, R value) throws Throwable;
+
+    /**
+     * Called when all mapped promises resolved
+     */
+    abstract RESULT result();
+
+    /**
+     * Called before pulling the next input. Returning false postpones pulling until {@link PromiseMapping#drain()} is
+     * called again. Thrown exception rejects the resulting Promise.
+     */
+    boolean canStart() throws Throwable {
+        return true;
+    }
+
+    /**
+     * Reject the resulting Promise with the exception and cancel pending mapped promises. Done by the draining thread,
+     * so it can be called by any thread, at any time.
+     */
+    final void abort(Throwable exception) {
+        abortion = exception;
+        drain();
+    }
+
+    /**
+     * Handle settled promises and pull inputs, unless another thread is doing it - then that thread does it once more
+     */
+    final void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            handleCompleted();
+            if (!done) {
+                Throwable abortion = this.abortion;
+                if (abortion != null) {
+                    fail(abortion);
+                } else if (cancelled) {
+                    finish();
+                } else {
+                    pull();
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void handleCompleted() {
+        Element top = COMPLETED.getAndSet(this, null);
+        // reverse the stack to handle elements in order of completion
+        Element element = null;
+        while (top != null) {
+            Element next = top.nextCompleted;
+            top.nextCompleted = element;
+            element = top;
+            top = next;
+        }
+        while (element != null) {
+            Element next = element.nextCompleted;
+            element.nextCompleted = null;
+            removeInFlight(element);
+            if (!done) {
+                if (element.rejected) {
+                    fail((Throwable) element.outcome);
+                } else {
+                    resolved(element);
+                }
+            }
+            element = next;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolved(Element element) {
+        try {
+            onResolved(element.index, (R) element.outcome);
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    private void pull() {
+        try {
+            while (inFlightCount < concurrency) {
+                if (!inputs.hasNext()) {
+                    if (inFlightCount == 0) {
+                        done = true;
+                        promiseCallbacks.resolve(result());
+                    }
+                    return;
+                }
+                if (!canStart()) {
+                    return;
+                }
+                int index = nextIndex++;
+                Thenable<? extends R> mapped = map(inputs.next());
+                onStarted(index);
+                subscribe(new Element(this, index), mapped);
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    private void subscribe(Element element, Thenable<?> mapped) {
+        addInFlight(element);
+        if (mapped instanceof Promise) {
+            ((Promise<?>) mapped).addNext(element);
+        } else if (mapped != null) {
+            mapped.then(element::doResolve);
+            mapped.catchVoid(element::doReject);
+        } else {
+            element.doResolve(null);
+        }
+    }
+
+    private void fail(Throwable exception) {
+        promiseCallbacks.reject(exception);
+        finish();
+    }
+
+    /**
+     * Stop pulling inputs and cancel pending mapped promises
+     */
+    private void finish() {
+        done = true;
+        for (Element element = inFlight; element != null; element = element.nextInFlight) {
+            element.cancel();
+        }
+    }
+
+    private void addInFlight(Element element) {
+        element.nextInFlight = inFlight;
+        if (inFlight != null) {
+            inFlight.previousInFlight = element;
+        }
+        inFlight = element;
+        inFlightCount++;
+    }
+
+    private void removeInFlight(Element element) {
+        if (element.previousInFlight != null) {
+            element.previousInFlight.nextInFlight = element.nextInFlight;
+        } else {
+            inFlight = element.nextInFlight;
+        }
+        if (element.nextInFlight != null) {
+            element.nextInFlight.previousInFlight = element.previousInFlight;
+        }
+        element.previousInFlight = null;
+        element.nextInFlight = null;
+        inFlightCount--;
+    }
+
+    private void complete(Element element) {
+        for (; ; ) {
+            Element top = completed;
+            element.nextCompleted = top;
+            if (COMPLETED.compareAndSet(this, top, element)) {
+                break;
+            }
+        }
+        drain();
+    }
+
+    /**
+     * Dependent of a mapped promise
+     */
+    private static class Element extends Promise<Object> {
+
+        private final PromiseMapping<?, ?, ?> mapping;
+
+        private final int index;
+
+        /**
+         * Value or exception of the mapped promise
+         */
+        private Object outcome;
+
+        private boolean rejected;
+
+        private Element nextCompleted;
+
+        private Element previousInFlight;
+
+        private Element nextInFlight;
+
+        Element(PromiseMapping<?, ?, ?> mapping, int index) {
+            super(false);
+            this.mapping = mapping;
+            this.index = index;
+        }
+
+        @Override
+        void doResolve(Object result) {
+            if (isPending()) {
+                outcome = result;
+                mapping.complete(this);
+            }
+        }
+
+        @Override
+        void doReject(Throwable exception) {
+            if (isPending()) {
+                outcome = exception;
+                rejected = true;
+                mapping.complete(this);
+            }
+        }
+
+    }
+
+}
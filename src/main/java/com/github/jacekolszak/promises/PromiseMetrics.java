@@ -0,0 +1,99 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link PromiseInstrumentation} counting promises and recording latency histograms: time from creation to
+ * settlement of promises and duration of callbacks. Example:
+ * <pre>
+ * PromiseMetrics metrics = new PromiseMetrics();
+ * PromiseInstrumentation.install(metrics);
+ * ...
+ * System.out.println(metrics.pending() + " pending, " + metrics.settlementLatency());
+ * </pre>
+ */
+public class PromiseMetrics implements PromiseInstrumentation {
+
+    private final LongAdder created = new LongAdder();
+
+    private final LongAdder resolved = new LongAdder();
+
+    private final LongAdder rejected = new LongAdder();
+
+    private final LongAdder callbacksFailed = new LongAdder();
+
+    private final LatencyHistogram settlementLatency = new LatencyHistogram();
+
+    private final LatencyHistogram callbackDuration = new LatencyHistogram();
+
+    @Override
+    public Object created(Promise<?> promise) {
+        created.increment();
+        return System.nanoTime();
+    }
+
+    @Override
+    public void settled(Promise<?> promise, Object context, boolean resolved) {
+        if (context instanceof Long) {
+            settlementLatency.record(System.nanoTime() - (Long) context);
+        }
+        (resolved ? this.resolved : this.rejected).increment();
+    }
+
+    @Override
+    public Object callbackStarted(Promise<?> promise) {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void callbackEnded(Promise<?> promise, Object context, Throwable exception) {
+        if (context instanceof Long) {
+            callbackDuration.record(System.nanoTime() - (Long) context);
+        }
+        if (exception != null) {
+            callbacksFailed.increment();
+        }
+    }
+
+    /**
+     * @return Number of promises created but not settled yet. Approximate when promises are created or settled
+     * concurrently.
+     */
+    public long pending() {
+        return created.sum() - resolved.sum() - rejected.sum();
+    }
+
+    public long createdCount() {
+        return created.sum();
+    }
+
+    public long resolvedCount() {
+        return resolved.sum();
+    }
+
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return Number of callbacks which have thrown an exception
+     */
+    public long failedCallbackCount() {
+        return callbacksFailed.sum();
+    }
+
+    /**
+     * @return Time from creation to settlement of promises
+     */
+    public LatencyHistogram settlementLatency() {
+        return settlementLatency;
+    }
+
+    /**
+     * @return Duration of "then" and "catch" callbacks
+     */
+    public LatencyHistogram callbackDuration() {
+        return callbackDuration;
+    }
+
+}
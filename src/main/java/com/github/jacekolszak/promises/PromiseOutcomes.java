@@ -0,0 +1,76 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Outcomes of promises passed to {@link Promise#allSettled(Object...)}, in the order they were passed. Values and
+ * exceptions share one array, and a bitset tells which of them were rejected, so no object is allocated per outcome.
+ */
+public final class PromiseOutcomes {
+
+    private final Object[] outcomes;
+
+    private final AtomicLongArray rejected;
+
+    PromiseOutcomes(Object[] outcomes, AtomicLongArray rejected) {
+        this.outcomes = outcomes;
+        this.rejected = rejected;
+    }
+
+    /**
+     * @return Number of outcomes, same as the number of values passed to {@link Promise#allSettled(Object...)}
+     */
+    public int size() {
+        return outcomes.length;
+    }
+
+    public boolean isResolved(int index) {
+        return !isRejected(index);
+    }
+
+    public boolean isRejected(int index) {
+        checkIndex(index);
+        return (rejected.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * @return Value of resolved promise
+     * @throws IllegalStateException When promise was rejected
+     */
+    public Object value(int index) {
+        if (isRejected(index)) {
+            throw new IllegalStateException("Promise at index " + index + " was rejected");
+        }
+        return outcomes[index];
+    }
+
+    /**
+     * @return Exception of rejected promise
+     * @throws IllegalStateException When promise was resolved
+     */
+    public Throwable exception(int index) {
+        if (isResolved(index)) {
+            throw new IllegalStateException("Promise at index " + index + " was resolved");
+        }
+        return (Throwable) outcomes[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= outcomes.length) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + outcomes.length);
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("PromiseOutcomes[");
+        for (int i = 0; i < outcomes.length; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append(isRejected(i) ? "rejected " : "resolved ").append(outcomes[i]);
+        }
+        return builder.append(']').toString();
+    }
+
+}
@@ -1,26 +1,30 @@
 package com.github.jacekolszak.promises;
 
-class PromiseRace {
-
-    private final PromiseCallbacks<Object> promiseCallbacks;
+class PromiseRace extends PromiseCombinator<Object> {
 
     public PromiseRace(Object[] values, PromiseCallbacks<Object> promiseCallbacks) {
-        if (values == null) {
-            throw new IllegalArgumentException("Null array passed to Promise.race");
-        }
-        this.promiseCallbacks = promiseCallbacks;
+        super("race", values, promiseCallbacks);
         if (values.length == 0) {
-            throw new IllegalArgumentException("Array passed to Promise.race cannot be empty");
+            throw new PromiseArgumentException("Array passed to Promise.race cannot be empty");
         } else {
-            for (Object value : values) {
-                resolve(value);
-            }
+            subscribe(values);
         }
     }
 
-    private void resolve(Object value) {
-        Promise.resolve(value).
-                then(promiseCallbacks::resolve).
-                catchVoid(promiseCallbacks::reject);
+    @Override
+    void onResolved(int index, Object value) {
+        if (!isDone()) {
+            promiseCallbacks.resolve(value);
+            finish();
+        }
     }
+
+    @Override
+    void onRejected(int index, Throwable exception) {
+        if (!isDone()) {
+            promiseCallbacks.reject(exception);
+            finish();
+        }
+    }
+
 }
@@ -0,0 +1,42 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Reduces inputs one at a time - the reducer is applied to the next input only when the Thenable returned for
+ * the previous one resolved, with its value as the accumulator.
+ */
+class PromiseReduce<T, ACC> extends PromiseMapping<T, ACC, ACC> {
+
+    private final CheckedBiFunction<? super ACC, ? super T, ? extends Thenable<? extends ACC>> reducer;
+
+    private ACC accumulator;
+
+    public PromiseReduce(Iterable<? extends T> inputs, ACC seed,
+                         CheckedBiFunction<? super ACC, ? super T, ? extends Thenable<? extends ACC>> reducer,
+                         PromiseCallbacks<ACC> promiseCallbacks) {
+        super("reduce", inputs, 1, promiseCallbacks);
+        if (reducer == null) throw new PromiseArgumentException("Null reducer passed to Promise.reduce");
+        this.reducer = reducer;
+        this.accumulator = seed;
+        start();
+    }
+
+    @Override
+    Thenable<? extends ACC> map(T input) throws Throwable {
+        return reducer.apply(accumulator, input);
+    }
+
+    @Override
+    void onStarted(int index) {
+    }
+
+    @Override
+    void onResolved(int index, ACC value) {
+        accumulator = value;
+    }
+
+    @Override
+    ACC result() {
+        return accumulator;
+    }
+
+}
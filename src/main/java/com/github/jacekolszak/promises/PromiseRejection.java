@@ -0,0 +1,18 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * State of a rejected {@link Promise}
+ */
+class PromiseRejection {
+
+    public final Throwable exception;
+
+    public PromiseRejection(Throwable exception) {
+        this.exception = exception;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(exception);
+    }
+}
@@ -0,0 +1,145 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Attempts the operation until its Thenable resolves or the policy gives up. Only the pending attempt and the timer
+ * task are referenced, so retained memory doesn't depend on the number of attempts. Attempts failing synchronously
+ * are started in a loop rather than recursively, and delayed ones are started by the default executor.
+ */
+class PromiseRetry<RESULT> {
+
+    private final Supplier<? extends Thenable<RESULT>> operation;
+
+    private final RetryPolicy policy;
+
+    private final PromiseCallbacks<RESULT> promiseCallbacks;
+
+    /**
+     * Number of requested attempts not started yet. Only the thread which increments it from 0 starts them.
+     */
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private int attempts;
+
+    private volatile Attempt current;
+
+    private volatile TimerWheel.Timeout timeout;
+
+    private volatile boolean cancelled;
+
+    public PromiseRetry(Supplier<? extends Thenable<RESULT>> operation, RetryPolicy policy,
+                        PromiseCallbacks<RESULT> promiseCallbacks) {
+        if (operation == null) throw new PromiseArgumentException("Operation cannot be null");
+        if (policy == null) throw new PromiseArgumentException("Retry policy cannot be null");
+        this.operation = operation;
+        this.policy = policy;
+        this.promiseCallbacks = promiseCallbacks;
+        promiseCallbacks.onCancel(this::cancel);
+        attempt();
+    }
+
+    private void attempt() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        do {
+            if (!cancelled) {
+                startAttempt();
+            }
+        } while (wip.decrementAndGet() != 0);
+    }
+
+    private void startAttempt() {
+        attempts++;
+        Attempt attempt = new Attempt(this);
+        current = attempt;
+        Thenable<RESULT> thenable;
+        try {
+            thenable = operation.get();
+        } catch (Throwable e) {
+            attempt.doReject(e);
+            return;
+        }
+        if (thenable instanceof Promise) {
+            ((Promise<?>) thenable).addNext(attempt);
+        } else if (thenable != null) {
+            thenable.then(attempt::doResolve);
+            thenable.catchVoid(attempt::doReject);
+        } else {
+            attempt.doReject(new IllegalStateException("Retried operation returned null"));
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void resolved(Object result) {
+        current = null;
+        promiseCallbacks.resolve((RESULT) result);
+    }
+
+    private void failed(Throwable exception) {
+        current = null;
+        boolean retry;
+        try {
+            retry = attempts < policy.maxAttempts() && !cancelled && policy.shouldRetry(exception);
+        } catch (Throwable e) {
+            promiseCallbacks.reject(e);
+            return;
+        }
+        if (!retry) {
+            promiseCallbacks.reject(exception);
+            return;
+        }
+        long delay = policy.delay(attempts);
+        if (delay <= 0) {
+            attempt();
+        } else {
+            timeout = Timers.timer.schedule(() -> Timers.defaultExecutor().execute(this::attempt), delay);
+            if (cancelled) {
+                timeout.cancel();
+            }
+        }
+    }
+
+    private void cancel() {
+        cancelled = true;
+        TimerWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+        Attempt attempt = current;
+        if (attempt != null) {
+            attempt.cancel();
+        }
+    }
+
+    /**
+     * Dependent of the Thenable returned by the operation
+     */
+    private static class Attempt extends Promise<Object> {
+
+        private final PromiseRetry<?> retry;
+
+        Attempt(PromiseRetry<?> retry) {
+            super(false);
+            this.retry = retry;
+        }
+
+        @Override
+        void doResolve(Object result) {
+            if (isPending()) {
+                retry.resolved(result);
+            }
+        }
+
+        @Override
+        void doReject(Throwable exception) {
+            if (isPending()) {
+                retry.failed(exception);
+            }
+        }
+
+    }
+
+}
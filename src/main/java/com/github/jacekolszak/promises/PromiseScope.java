@@ -0,0 +1,255 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Supplier;
+
+/**
+ * Scope owning promises of operations started using {@link PromiseScope#fork(Supplier)} - its children. Children
+ * can't outlive the scope: when one of them is rejected, or the scope is closed, all children still pending are
+ * cancelled, and so are the operations they wait for (including timer tasks of {@link Timers}, see
+ * {@link Promise#cancel()}). Promise returned by {@link PromiseScope#join()} is settled once all children are
+ * settled.
+ * <p>
+ * PromiseScope is thread safe and lock-free - children are registered and unregistered using atomic operations only,
+ * without allocating anything but the child Promise, so it is cheap to create a scope per request:
+ * <pre>{@code
+ * PromiseScope scope = new PromiseScope();
+ * Promise<User> user = scope.fork(() -> getUser(id));
+ * Promise<Orders> orders = scope.fork(() -> getOrders(id));
+ * request.onAbort(scope::close);
+ * return scope.join().thenReturn(v -> render(user, orders));
+ * }</pre>
+ */
+public final class PromiseScope implements AutoCloseable {
+
+    private static final AtomicReferenceFieldUpdater<PromiseScope, Child> CHILDREN =
+            AtomicReferenceFieldUpdater.newUpdater(PromiseScope.class, Child.class, "children");
+
+    private static final AtomicReferenceFieldUpdater<PromiseScope, Throwable> FAILURE =
+            AtomicReferenceFieldUpdater.newUpdater(PromiseScope.class, Throwable.class, "failure");
+
+    /**
+     * Top of the stack of a scope which cancelled its children
+     */
+    private static final Child<?> CANCELLED = new Child<>(null);
+
+    /**
+     * Number of linked children above which settled ones are removed, unless most of them are still pending
+     */
+    private static final int MIN_LINKED_TO_REMOVE = 32;
+
+    /**
+     * Top of the stack of children linked using {@link Child#next}, {@link PromiseScope#CANCELLED} once they were
+     * cancelled
+     */
+    private volatile Child<?> children;
+
+    /**
+     * Pending children, plus one until the scope is joined or closed. Scope is settled when it drops to 0.
+     */
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    /**
+     * Approximate number of children in the stack, both pending and settled
+     */
+    private final AtomicInteger linked = new AtomicInteger();
+
+    private final AtomicBoolean removingSettled = new AtomicBoolean();
+
+    private final AtomicBoolean joined = new AtomicBoolean();
+
+    /**
+     * Exception of the first rejected child
+     */
+    private volatile Throwable failure;
+
+    private final Promise<Void> completion = new Promise<>();
+
+    /**
+     * Start the operation as a child of this scope, unless the scope has already cancelled its children - then
+     * returned Promise is cancelled and the operation is not started.
+     *
+     * @param operation Operation returning a Thenable, executed immediately
+     * @return Promise settled the same way as the Thenable returned by the operation, or rejected with the exception
+     * thrown by the operation
+     * @throws IllegalArgumentException When operation is null
+     * @throws IllegalStateException    When the scope was already joined or closed and all its children are settled
+     */
+    public <RESULT> Promise<RESULT> fork(Supplier<? extends Thenable<RESULT>> operation) {
+        if (operation == null) throw new IllegalArgumentException("Operation cannot be null");
+        for (; ; ) {
+            int current = pending.get();
+            if (current == 0) throw new IllegalStateException("Scope is already settled");
+            if (pending.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+        Child<RESULT> child = new Child<>(this);
+        if (link(child)) {
+            child.start(operation);
+        } else {
+            child.cancel(new CancellationException("Scope has cancelled its children"));
+        }
+        return child;
+    }
+
+    /**
+     * Stop accepting children once all the current ones are settled.
+     *
+     * @return Promise resolved with null when all children are resolved, or rejected with the exception of the first
+     * rejected child once all children are settled
+     */
+    public Promise<Void> join() {
+        if (joined.compareAndSet(false, true)) {
+            unregister();
+        }
+        return completion;
+    }
+
+    /**
+     * Cancel all pending children and stop accepting new ones. Promise returned by {@link PromiseScope#join()} is
+     * rejected with {@link CancellationException} when some child was still pending. Closing a settled scope has no
+     * effect.
+     */
+    @Override
+    public void close() {
+        cancelChildren(new CancellationException("Scope was closed"));
+        join();
+    }
+
+    /**
+     * @return Number of children not settled yet
+     */
+    public int pending() {
+        return pending.get() - (joined.get() ? 0 : 1);
+    }
+
+    private boolean link(Child<?> child) {
+        if (!push(child)) {
+            return false;
+        }
+        if (linked.incrementAndGet() > Math.max(MIN_LINKED_TO_REMOVE, 2 * pending.get())) {
+            removeSettled();
+        }
+        return true;
+    }
+
+    private boolean push(Child<?> child) {
+        for (; ; ) {
+            Child<?> top = children;
+            if (top == CANCELLED) {
+                return false;
+            }
+            child.next = top;
+            if (CHILDREN.compareAndSet(this, top, child)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Remove settled children from the stack, so that long-lived scopes don't retain them. Done by one thread at
+     * a time - children linked concurrently are linked back.
+     */
+    private void removeSettled() {
+        if (!removingSettled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            Child<?> top;
+            do {
+                top = children;
+                if (top == CANCELLED) {
+                    return;
+                }
+            } while (!CHILDREN.compareAndSet(this, top, null));
+            int count = 0;
+            for (Child<?> child = top; child != null; ) {
+                Child<?> next = child.next;
+                if (child.isPending()) {
+                    if (!push(child)) {
+                        child.cancel(new CancellationException("Scope has cancelled its children"));
+                    }
+                    count++;
+                }
+                child = next;
+            }
+            linked.set(count);
+        } finally {
+            removingSettled.set(false);
+        }
+    }
+
+    private void cancelChildren(CancellationException reason) {
+        Child<?> child = CHILDREN.getAndSet(this, CANCELLED);
+        while (child != null && child != CANCELLED) {
+            Child<?> next = child.next;
+            child.next = null;
+            child.cancel(reason);
+            child = next;
+        }
+    }
+
+    private void settled(Child<?> child) {
+        Throwable exception = child.rejection();
+        if (exception != null && FAILURE.compareAndSet(this, null, exception)) {
+            cancelChildren(new CancellationException("Another child of the scope was rejected"));
+        }
+        unregister();
+    }
+
+    private void unregister() {
+        if (pending.decrementAndGet() == 0) {
+            children = CANCELLED;
+            Throwable failure = this.failure;
+            if (failure != null) {
+                completion.setException(failure);
+            } else {
+                completion.setResult(null);
+            }
+        }
+    }
+
+    /**
+     * Promise of an operation started in the scope
+     */
+    private static class Child<RESULT> extends Promise<RESULT> {
+
+        private final PromiseScope scope;
+
+        private Child<?> next;
+
+        /**
+         * @param scope Null for the {@link PromiseScope#CANCELLED} marker, which is not instrumented
+         */
+        Child(PromiseScope scope) {
+            super(scope != null);
+            this.scope = scope;
+        }
+
+        void start(Supplier<? extends Thenable<RESULT>> operation) {
+            Thenable<RESULT> thenable;
+            try {
+                thenable = operation.get();
+            } catch (Throwable e) {
+                setException(e);
+                return;
+            }
+            if (thenable != null) {
+                setResult(thenable);
+            } else {
+                setException(new IllegalStateException("Forked operation returned null"));
+            }
+        }
+
+        @Override
+        void onSettled() {
+            scope.settled(this);
+        }
+
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.github.jacekolszak.promises;
+
+import java.time.Instant;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Exception rejecting a Promise which was not settled before the deadline. The stack trace is not filled in, unless
+ * "com.github.jacekolszak.promises.stackTraces" system property is set to true, and the message is built only when
+ * requested, so creating this exception is cheap.
+ */
+public class PromiseTimeoutException extends TimeoutException {
+
+    /**
+     * Constant label of the operation which timed out, like "promise chain"
+     */
+    private final String operation;
+
+    private final long timeout;
+
+    private final long deadline;
+
+    /**
+     * @param operation Label of the operation which timed out
+     * @param timeout   Time in millis the operation was given
+     * @param deadline  Time in millis since epoch when the time passed
+     */
+    PromiseTimeoutException(String operation, long timeout, long deadline) {
+        this.operation = operation;
+        this.timeout = timeout;
+        this.deadline = deadline;
+    }
+
+    /**
+     * @return Time in millis the operation was given
+     */
+    public long getTimeout() {
+        return timeout;
+    }
+
+    public Instant getDeadline() {
+        return Instant.ofEpochMilli(deadline);
+    }
+
+    @Override
+    public String getMessage() {
+        return "Timeout waiting for " + operation + " - " + timeout + " ms passed at " + getDeadline();
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return StackTraces.ENABLED ? super.fillInStackTrace() : this;
+    }
+
+}
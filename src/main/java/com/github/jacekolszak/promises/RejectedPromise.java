@@ -0,0 +1,12 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Promise rejected already when created, without running any executor code.
+ */
+class RejectedPromise<RESULT> extends Promise<RESULT> {
+
+    public RejectedPromise(Throwable exception) {
+        setException(exception);
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Promise resolved already when created, without running any executor code.
+ */
+class ResolvedPromise<RESULT> extends Promise<RESULT> {
+
+    public ResolvedPromise(RESULT result) {
+        setResult(result);
+    }
+
+}
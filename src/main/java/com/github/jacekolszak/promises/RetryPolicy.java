@@ -0,0 +1,122 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Predicate;
+
+/**
+ * Immutable policy of {@link Promise#retry(java.util.function.Supplier, RetryPolicy)}: how many times the operation
+ * is attempted, how long to wait between attempts and which exceptions are worth retrying. Example:
+ * <pre>
+ * RetryPolicy.maxAttempts(5).
+ *         withBackoff(100, 2, 5000).
+ *         withJitter(0.2).
+ *         retryOn(e -&gt; e instanceof IOException);
+ * </pre>
+ */
+public final class RetryPolicy {
+
+    private final int maxAttempts;
+
+    private final long initialDelay;
+
+    private final double multiplier;
+
+    private final long maxDelay;
+
+    private final double jitter;
+
+    private final Predicate<Throwable> retryOn;
+
+    private RetryPolicy(int maxAttempts, long initialDelay, double multiplier, long maxDelay, double jitter,
+                        Predicate<Throwable> retryOn) {
+        this.maxAttempts = maxAttempts;
+        this.initialDelay = initialDelay;
+        this.multiplier = multiplier;
+        this.maxDelay = maxDelay;
+        this.jitter = jitter;
+        this.retryOn = retryOn;
+    }
+
+    /**
+     * Create a policy retrying immediately on any exception
+     *
+     * @param maxAttempts Maximum number of attempts, including the first one
+     * @throws IllegalArgumentException When maxAttempts is not positive
+     */
+    public static RetryPolicy maxAttempts(int maxAttempts) {
+        if (maxAttempts < 1) throw new IllegalArgumentException("Max attempts must be positive");
+        return new RetryPolicy(maxAttempts, 0, 1, 0, 0, e -> true);
+    }
+
+    /**
+     * @param delay Time in millis between attempts
+     * @throws IllegalArgumentException When delay is negative
+     */
+    public RetryPolicy withFixedDelay(long delay) {
+        return withBackoff(delay, 1, delay);
+    }
+
+    /**
+     * Wait exponentially longer before each retry: initialDelay, initialDelay * multiplier,
+     * initialDelay * multiplier^2 and so on, but not longer than maxDelay
+     *
+     * @param initialDelay Time in millis before the first retry
+     * @param maxDelay     Maximum time in millis between attempts
+     * @throws IllegalArgumentException When initialDelay is negative, multiplier is lower than 1 or maxDelay is
+     *                                  lower than initialDelay
+     */
+    public RetryPolicy withBackoff(long initialDelay, double multiplier, long maxDelay) {
+        if (initialDelay < 0) throw new IllegalArgumentException("Initial delay cannot be negative");
+        if (!(multiplier >= 1)) throw new IllegalArgumentException("Multiplier cannot be lower than 1");
+        if (maxDelay < initialDelay) throw new IllegalArgumentException("Max delay cannot be lower than initial delay");
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay, jitter, retryOn);
+    }
+
+    /**
+     * Randomize delays, so clients failing at the same time don't retry at the same time
+     *
+     * @param jitter Fraction of the delay, from 0 to 1, by which the delay is randomly shortened or extended
+     * @throws IllegalArgumentException When jitter is not in range from 0 to 1
+     */
+    public RetryPolicy withJitter(double jitter) {
+        if (!(jitter >= 0 && jitter <= 1)) throw new IllegalArgumentException("Jitter must be in range from 0 to 1");
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay, jitter, retryOn);
+    }
+
+    /**
+     * @param predicate Returns true when exception of failed attempt is worth retrying. Exception thrown by the
+     *                  predicate rejects the retried Promise.
+     * @throws IllegalArgumentException When predicate is null
+     */
+    public RetryPolicy retryOn(Predicate<Throwable> predicate) {
+        if (predicate == null) throw new IllegalArgumentException("Predicate cannot be null");
+        return new RetryPolicy(maxAttempts, initialDelay, multiplier, maxDelay, jitter, predicate);
+    }
+
+    int maxAttempts() {
+        return maxAttempts;
+    }
+
+    boolean shouldRetry(Throwable exception) {
+        return retryOn.test(exception);
+    }
+
+    /**
+     * @param retry Number of the retry, starting from 1
+     * @return Time in millis to wait before the retry
+     */
+    long delay(int retry) {
+        double delay = Math.min(initialDelay * Math.pow(multiplier, retry - 1), maxDelay);
+        if (jitter > 0) {
+            delay *= 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        }
+        return (long) delay;
+    }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{maxAttempts=" + maxAttempts + ", initialDelay=" + initialDelay +
+                ", multiplier=" + multiplier + ", maxDelay=" + maxDelay + ", jitter=" + jitter + "}";
+    }
+
+}
@@ -0,0 +1,17 @@
+package com.github.jacekolszak.promises;
+
+/**
+ * Configuration of exceptions raised by the library to reject promises, like {@link PromiseTimeoutException}. Their
+ * stack traces show only the internals of the library, while filling them in is costly, therefore they are not
+ * filled in unless {@value StackTraces#PROPERTY} system property is set to true.
+ */
+final class StackTraces {
+
+    static final String PROPERTY = "com.github.jacekolszak.promises.stackTraces";
+
+    static final boolean ENABLED = Boolean.getBoolean(PROPERTY);
+
+    private StackTraces() {
+    }
+
+}
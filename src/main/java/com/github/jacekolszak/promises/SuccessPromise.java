@@ -1,27 +1,86 @@
 package com.github.jacekolszak.promises;
 
-import java.util.Optional;
+import java.util.concurrent.Executor;
 
 class SuccessPromise<IN, OUT> extends Promise<IN> {
 
-    private final Optional<CheckedFunction<IN, OUT>> thenFunction;
+    /**
+     * Null when callback was skipped or has already been executed
+     */
+    private CheckedFunction<IN, OUT> thenFunction;
 
-    public SuccessPromise(CheckedFunction<IN, OUT> thenFunction) {
-        this.thenFunction = Optional.ofNullable(thenFunction);
+    /**
+     * Executor running the callback, null when callback is executed by the thread which resolved the Promise
+     */
+    private final Executor callbackExecutor;
+
+    public SuccessPromise(CheckedFunction<IN, OUT> thenFunction, Executor callbackExecutor) {
+        this.thenFunction = thenFunction;
+        this.callbackExecutor = callbackExecutor;
     }
 
     @Override
-    synchronized void doResolve(IN in) {
-        try {
-            if (in instanceof Thenable) {
-                doResolvePromise((Thenable<IN>) in);
-            } else {
-                OUT out = this.thenFunction.isPresent() ? this.thenFunction.get().apply(in) : (OUT) in;
-                setResult(out);
+    void doResolve(IN in) {
+        if (thenFunction == null || callbackExecutor == null || Trampoline.isRunningOn(callbackExecutor)) {
+            resolveNow(in);
+        } else {
+            try {
+                Trampoline.execute(callbackExecutor, () -> resolveNow(in));
+            } catch (Throwable e) {
+                doReject(e);
             }
+        }
+    }
+
+    private void resolveNow(IN in) {
+        if (!isPending()) {
+            // cancelled while waiting for the executor
+            return;
+        }
+        setResult(apply(in));
+    }
+
+    @Override
+    Promise<?> fireLinked(Object outcome) {
+        if (callbackExecutor != null || !isPending()) {
+            return super.fireLinked(outcome);
+        }
+        if (outcome instanceof PromiseRejection) {
+            thenFunction = null;
+            return passLinked(outcome);
+        }
+        return settleLinked(apply(value(outcome)));
+    }
+
+    /**
+     * @return Result of the callback, the input when callback was skipped, or {@link PromiseRejection} when the
+     * callback threw an exception
+     */
+    private Object apply(IN in) {
+        CheckedFunction<IN, OUT> function = thenFunction;
+        thenFunction = null;
+        if (function == null) {
+            return in;
+        }
+        Object context = Instrumentation.callbackStarted(this);
+        OUT out;
+        Object deadlineToken = Deadline.enter(this);
+        try {
+            out = function.apply(in);
         } catch (Throwable exception) {
-            setException(exception);
+            Deadline.exit(deadlineToken);
+            if (context != null) Instrumentation.callbackEnded(this, context, exception);
+            return new PromiseRejection(exception);
         }
+        Deadline.exit(deadlineToken);
+        if (context != null) Instrumentation.callbackEnded(this, context, null);
+        return out;
+    }
+
+    @Override
+    void doReject(Throwable exception) {
+        thenFunction = null;
+        super.doReject(exception);
     }
 
 }
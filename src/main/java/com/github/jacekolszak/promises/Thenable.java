@@ -1,5 +1,7 @@
 package com.github.jacekolszak.promises;
 
+import java.util.concurrent.Executor;
+
 /**
  * Thenable is a Promise object interface.P
  *
@@ -19,6 +21,19 @@ public interface Thenable<RESULT> {
      */
     <NEW_RESULT> Thenable<NEW_RESULT> thenReturn(CheckedFunction<RESULT, NEW_RESULT> callback);
 
+    /**
+     * Overloaded {@link Thenable#thenReturn(CheckedFunction)} method running the callback using passed
+     * {@link Executor} instead of the thread which resolved the Promise. Consecutive callbacks in the chain using the
+     * same executor are executed in a single task. This method can be used to move heavy callbacks out of I/O threads.
+     *
+     * @param executor When null then a default executor is used (the same as in {@link Timers})
+     * @see Thenable#thenReturn(CheckedFunction)
+     */
+    default <NEW_RESULT> Thenable<NEW_RESULT> thenReturnAsync(CheckedFunction<RESULT, NEW_RESULT> callback,
+                                                              Executor executor) {
+        return Promise.resolve(this).thenReturnAsync(callback, executor);
+    }
+
     /**
      * Run the callback when Promise is resolved (on success). This is a special case of
      * {@link Thenable#thenReturn(CheckedFunction)} method for callbacks returning Promises. Please note that this
@@ -42,7 +57,7 @@ public interface Thenable<RESULT> {
     default Thenable<Void> then(CheckedConsumer<RESULT> callback) {
         if (callback == null) {
             return new Promise<>(p -> {
-                throw new IllegalArgumentException("Then callback cannot be null");
+                throw new PromiseArgumentException("Then callback cannot be null");
             });
         } else {
             return thenReturn((r) -> {
@@ -64,6 +79,19 @@ public interface Thenable<RESULT> {
      */
     <NEW_RESULT> Thenable<NEW_RESULT> catchReturn(CheckedFunction<Throwable, NEW_RESULT> callback);
 
+    /**
+     * Overloaded {@link Thenable#catchReturn(CheckedFunction)} method running the callback using passed
+     * {@link Executor} instead of the thread which rejected the Promise. Consecutive callbacks in the chain using the
+     * same executor are executed in a single task.
+     *
+     * @param executor When null then a default executor is used (the same as in {@link Timers})
+     * @see Thenable#catchReturn(CheckedFunction)
+     */
+    default <NEW_RESULT> Thenable<NEW_RESULT> catchReturnAsync(CheckedFunction<Throwable, NEW_RESULT> callback,
+                                                               Executor executor) {
+        return Promise.resolve(this).catchReturnAsync(callback, executor);
+    }
+
     /**
      * Run the callback when Promise is rejected (on error). This is a special case of
      * {@link Thenable#catchReturn(CheckedFunction)} method for callbacks that don't return anything. Please note that
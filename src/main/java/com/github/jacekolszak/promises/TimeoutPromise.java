@@ -0,0 +1,41 @@
+package com.github.jacekolszak.promises;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Promise adopting another one, rejected with {@link PromiseTimeoutException} when not settled before timeout - then
+ * the adopted Promise is cancelled. Timeout task is cancelled as soon as the Promise is settled.
+ */
+class TimeoutPromise<RESULT> extends Promise<RESULT> {
+
+    /**
+     * Null until scheduled, and when the Promise was settled before
+     */
+    private volatile TimerWheel.Timeout timeout;
+
+    public TimeoutPromise(Thenable<RESULT> promise, long delay, Executor executor) {
+        // adopted first, so that expired timeout cancels it even when it fires before the constructor has finished
+        setResult(promise);
+        if (!isPending()) {
+            return;
+        }
+        long deadline = System.currentTimeMillis() + delay;
+        TimerWheel.Timeout timeout = Timers.timer.schedule(
+                () -> executor.execute(() -> cancel(new PromiseTimeoutException("promise", delay, deadline))),
+                delay);
+        this.timeout = timeout;
+        if (!isPending()) {
+            // settled in the meantime, possibly before the timeout was visible to onSettled
+            timeout.cancel();
+        }
+    }
+
+    @Override
+    void onSettled() {
+        TimerWheel.Timeout timeout = this.timeout;
+        if (timeout != null) {
+            timeout.cancel();
+        }
+    }
+
+}
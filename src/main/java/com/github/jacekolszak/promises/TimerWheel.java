@@ -0,0 +1,256 @@
+package com.github.jacekolszak.promises;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel - scheduler with O(1) insertion and cancellation of tasks.
+ * <p>
+ * Time is divided into ticks. Each bucket of the wheel holds a doubly linked list of tasks expiring in ticks mapped
+ * to it, together with the number of full wheel rotations left. Tasks are scheduled and cancelled by any thread
+ * using lock-free queues, but buckets are touched only by the single daemon worker thread, which is started when the
+ * first task is scheduled and parks when there is nothing to do. Tasks are executed by the worker thread, therefore
+ * they should be short (i.e. submit the real work to an executor).
+ */
+class TimerWheel {
+
+    private final String threadName;
+
+    private final long tickNanos;
+
+    private final Timeout[] wheel;
+
+    private final int mask;
+
+    private final Queue<Timeout> scheduled = new ConcurrentLinkedQueue<>();
+
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Tasks scheduled but not yet expired nor removed after cancellation
+     */
+    private final AtomicInteger pending = new AtomicInteger();
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile long startTime;
+
+    private volatile Thread worker;
+
+    // fields below are accessed only by the worker thread
+
+    /**
+     * Last processed tick
+     */
+    private long tick;
+
+    /**
+     * Tasks placed in buckets
+     */
+    private int inWheel;
+
+    /**
+     * @param ticksPerWheel Rounded up to the power of two
+     */
+    TimerWheel(String threadName, long tickDuration, TimeUnit unit, int ticksPerWheel) {
+        this.threadName = threadName;
+        this.tickNanos = unit.toNanos(tickDuration);
+        int size = Integer.highestOneBit(ticksPerWheel - 1) << 1;
+        this.wheel = new Timeout[size];
+        this.mask = size - 1;
+    }
+
+    /**
+     * Schedule the task to be executed by the timer thread after delay.
+     *
+     * @param delay Delay in milliseconds
+     */
+    Timeout schedule(Runnable task, long delay) {
+        start();
+        long deadline = System.nanoTime() - startTime + TimeUnit.MILLISECONDS.toNanos(delay);
+        Timeout timeout = new Timeout(this, task, (deadline + tickNanos - 1) / tickNanos);
+        pending.incrementAndGet();
+        scheduled.add(timeout);
+        LockSupport.unpark(worker);
+        return timeout;
+    }
+
+    /**
+     * @return Number of tasks scheduled but not yet expired nor removed after cancellation
+     */
+    int pending() {
+        return pending.get();
+    }
+
+    private void start() {
+        if (!started.get() && started.compareAndSet(false, true)) {
+            startTime = System.nanoTime();
+            Thread thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        }
+        while (worker == null) {
+            Thread.yield();
+        }
+    }
+
+    private void run() {
+        for (; ; ) {
+            removeCancelled();
+            long now = System.nanoTime() - startTime;
+            long currentTick = now / tickNanos;
+            if (inWheel == 0 && tick < currentTick) {
+                // skip ticks passed while the worker was parked with no tasks to expire
+                tick = currentTick;
+            }
+            transferScheduled();
+            while (tick < currentTick) {
+                tick++;
+                expire(tick);
+            }
+            if (pending.get() == 0) {
+                LockSupport.park(this);
+            } else {
+                LockSupport.parkNanos(this, (tick + 1) * tickNanos - now);
+            }
+        }
+    }
+
+    private void transferScheduled() {
+        Timeout timeout;
+        while ((timeout = scheduled.poll()) != null) {
+            if (timeout.state == Timeout.CANCELLED) {
+                pending.decrementAndGet();
+                continue;
+            }
+            long deadlineTick = Math.max(timeout.deadlineTick, tick + 1);
+            timeout.rounds = (deadlineTick - tick - 1) / wheel.length;
+            add((int) (deadlineTick & mask), timeout);
+        }
+    }
+
+    private void removeCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket >= 0) {
+                remove(timeout);
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private void expire(long tick) {
+        Timeout timeout = wheel[(int) (tick & mask)];
+        while (timeout != null) {
+            Timeout next = timeout.next;
+            if (timeout.rounds <= 0) {
+                remove(timeout);
+                pending.decrementAndGet();
+                timeout.expire();
+            } else {
+                timeout.rounds--;
+            }
+            timeout = next;
+        }
+    }
+
+    private void add(int bucket, Timeout timeout) {
+        Timeout head = wheel[bucket];
+        timeout.bucket = bucket;
+        timeout.next = head;
+        if (head != null) {
+            head.prev = timeout;
+        }
+        wheel[bucket] = timeout;
+        inWheel++;
+    }
+
+    private void remove(Timeout timeout) {
+        if (timeout.prev != null) {
+            timeout.prev.next = timeout.next;
+        } else {
+            wheel[timeout.bucket] = timeout.next;
+        }
+        if (timeout.next != null) {
+            timeout.next.prev = timeout.prev;
+        }
+        timeout.prev = null;
+        timeout.next = null;
+        timeout.bucket = -1;
+        inWheel--;
+    }
+
+    /**
+     * Handle to a scheduled task
+     */
+    static class Timeout {
+
+        private static final int SCHEDULED = 0;
+
+        private static final int EXPIRED = 1;
+
+        private static final int CANCELLED = 2;
+
+        private static final AtomicIntegerFieldUpdater<Timeout> STATE =
+                AtomicIntegerFieldUpdater.newUpdater(Timeout.class, "state");
+
+        private final TimerWheel timerWheel;
+
+        private final long deadlineTick;
+
+        private Runnable task;
+
+        private volatile int state;
+
+        // fields below are accessed only by the worker thread
+
+        private long rounds;
+
+        private int bucket = -1;
+
+        private Timeout prev;
+
+        private Timeout next;
+
+        private Timeout(TimerWheel timerWheel, Runnable task, long deadlineTick) {
+            this.timerWheel = timerWheel;
+            this.task = task;
+            this.deadlineTick = deadlineTick;
+        }
+
+        /**
+         * Cancel the task, so it will never be executed. Cancelled task is removed from the wheel in the next tick.
+         *
+         * @return false when task was already executed or cancelled
+         */
+        boolean cancel() {
+            if (!STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+                return false;
+            }
+            task = null;
+            timerWheel.cancelled.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (STATE.compareAndSet(this, SCHEDULED, EXPIRED)) {
+                Runnable task = this.task;
+                this.task = null;
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    Thread thread = Thread.currentThread();
+                    thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+                }
+            }
+        }
+
+    }
+
+}
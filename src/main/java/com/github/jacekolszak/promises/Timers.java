@@ -2,29 +2,81 @@ package com.github.jacekolszak.promises;
 
 import static java.lang.Runtime.*;
 
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
-import java.util.concurrent.TimeoutException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Helper methods not related to Promises API, but still useful in many situations.
  */
 public class Timers {
 
-    private static Timer timer = new Timer("Promise Timeout Timer");
+    static final TimerWheel timer = new TimerWheel("Promise Timeout Timer", 1, TimeUnit.MILLISECONDS, 512);
 
-    private static Executor defaultExecutor = Executors.newFixedThreadPool(getRuntime().availableProcessors());
+    /**
+     * Executor set using {@link Timers#setDefaultExecutor(Executor)}, null when built-in one is used
+     */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * Set the executor used when no executor is passed to methods of this class or to async callback methods of
+     * {@link Thenable}.
+     *
+     * @param executor When null then the built-in executor is used: a virtual thread per task executor on Java 21
+     *                 and newer, otherwise a thread pool with the size of available processors. Threads of the
+     *                 built-in executor are daemons, created when needed.
+     */
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    static Executor defaultExecutor() {
+        Executor executor = defaultExecutor;
+        return executor != null ? executor : BuiltInExecutor.INSTANCE;
+    }
+
+    /**
+     * Holder of the built-in executor, created when used for the first time
+     */
+    private static class BuiltInExecutor {
+
+        static final Executor INSTANCE = create();
+
+        private static Executor create() {
+            try {
+                return (Executor) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (Throwable e) {
+                // virtual threads are not available before Java 21
+                return Executors.newFixedThreadPool(getRuntime().availableProcessors(), new DaemonThreadFactory());
+            }
+        }
+
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "Promise Default Executor-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
 
     /**
      * Create a Promise which resolves after specified delay. "Then" callback of created Promise will be executed
-     * in a thread pool with the size of available processors.
+     * by the default executor (see {@link Timers#setDefaultExecutor(Executor)}). Cancelling the Promise cancels the
+     * timer task.
      *
      * @param delay Time in millis
      */
     public static Promise<Void> delay(long delay) {
-        return delay(delay, defaultExecutor);
+        return delay(delay, defaultExecutor());
     }
 
     /**
@@ -35,12 +87,11 @@ public class Timers {
      */
     public static Promise<Void> delay(long delay, Executor executor) {
         if (delay < 0) throw new IllegalArgumentException("Delay cannot be negative");
-        Executor selectedExecutor = executor != null ? executor : Timers.defaultExecutor;
-        return new Promise<>(p -> timer.schedule(new TimerTask() {
-            public void run() {
-                selectedExecutor.execute(() -> p.resolve(null));
-            }
-        }, delay));
+        Executor selectedExecutor = executor != null ? executor : defaultExecutor();
+        return new Promise<>(p -> {
+            TimerWheel.Timeout timeout = timer.schedule(() -> selectedExecutor.execute(() -> p.resolve(null)), delay);
+            p.onCancel(timeout::cancel);
+        });
     }
 
     /**
@@ -53,18 +104,15 @@ public class Timers {
     public static <RESULT> Thenable<RESULT> timeout(Thenable<RESULT> promise, long delay,
                                                     Executor executor) {
         if (promise == null) throw new IllegalArgumentException("Promise cannot be null");
-        return (Thenable<RESULT>) Promise.race(
-                promise,
-                delay(delay, executor).then(v -> {
-                    throw new TimeoutException("Timeout waiting for promise ");
-                })
-        );
+        if (delay < 0) throw new IllegalArgumentException("Delay cannot be negative");
+        return new TimeoutPromise<>(promise, delay, executor != null ? executor : defaultExecutor());
     }
 
     /**
      * Create a Promise which will be rejected after specific timeout or resolved when promise passed as an argument
-     * is resolved. "Catch" callback of created Promise will be executed in a thread pool with the size of available
-     * processors.
+     * is resolved. "Catch" callback of created Promise will be executed by the default executor (see
+     * {@link Timers#setDefaultExecutor(Executor)}). Timeout task is cancelled as soon as the promise passed as an
+     * argument is settled.
      *
      * @param promise When promise resolves the created Timeout promise also resolves. If promise rejects before
      *                timeout
@@ -72,6 +120,6 @@ public class Timers {
      * @param delay   Delay in milliseconds
      */
     public static <RESULT> Thenable<RESULT> timeout(Thenable<RESULT> promise, long delay) {
-        return timeout(promise, delay, defaultExecutor);
+        return timeout(promise, delay, defaultExecutor());
     }
 }
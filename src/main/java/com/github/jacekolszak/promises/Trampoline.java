@@ -0,0 +1,94 @@
+package com.github.jacekolszak.promises;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.Executor;
+
+/**
+ * Per-thread queue of settled promises whose dependents are waiting to be fired. Firing a dependent may settle
+ * another promise - instead of recursing into it the dependents of that promise are queued and fired by the loop
+ * which is already running in the current thread. Thanks to that chains of any length are settled using constant
+ * stack depth.
+ * <p>
+ * Trampoline also remembers which {@link Executor} runs the current thread's task, so that callbacks which should
+ * be executed by the same executor are executed immediately, in the same task.
+ */
+class Trampoline {
+
+    private static final ThreadLocal<Trampoline> CURRENT = ThreadLocal.withInitial(Trampoline::new);
+
+    /**
+     * Pairs of first dependent {@link Promise} and the outcome of the Promise it depends on
+     */
+    private final ArrayDeque<Object> queue = new ArrayDeque<>();
+
+    private boolean draining;
+
+    private Executor executor;
+
+    /**
+     * Fire dependents starting from the first one, in the current thread. When the current thread is already firing
+     * dependents then they are fired after that.
+     */
+    static void fire(Promise<?> first, Object outcome) {
+        if (first != null) {
+            CURRENT.get().enqueue(first, outcome);
+        }
+    }
+
+    /**
+     * @return true when current thread runs a task submitted to the executor using
+     * {@link Trampoline#execute(Executor, Runnable)}
+     */
+    static boolean isRunningOn(Executor executor) {
+        return CURRENT.get().executor == executor;
+    }
+
+    /**
+     * Submit the task to the executor. Callbacks for the same executor which become ready while running the task are
+     * executed in the same task.
+     */
+    static void execute(Executor executor, Runnable task) {
+        executor.execute(() -> CURRENT.get().run(executor, task));
+    }
+
+    private void run(Executor executor, Runnable task) {
+        Executor previous = this.executor;
+        this.executor = executor;
+        try {
+            task.run();
+        } finally {
+            this.executor = previous;
+        }
+    }
+
+    /**
+     * @return true when no dependents are queued
+     */
+    boolean isIdle() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Queue dependents starting from the first one, and fire them unless the current thread is already doing it.
+     */
+    void enqueue(Promise<?> first, Object outcome) {
+        queue.add(first);
+        queue.add(outcome);
+        if (!draining) {
+            drain();
+        }
+    }
+
+    private void drain() {
+        draining = true;
+        try {
+            Object first;
+            while ((first = queue.poll()) != null) {
+                ((Promise<?>) first).fireAll(queue.poll(), this);
+            }
+        } finally {
+            draining = false;
+        }
+    }
+
+}
@@ -0,0 +1,182 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class BatchLoaderSpec {
+
+    private final List<List<Integer>> batches = new ArrayList<>();
+
+    private Object resolvedValue;
+
+    private Throwable caughtException;
+
+    private synchronized Thenable<Map<Integer, String>> loadAll(List<Integer> keys) {
+        batches.add(keys);
+        Map<Integer, String> values = new HashMap<>();
+        for (Integer key : keys) {
+            values.put(key, "value" + key);
+        }
+        return Promise.resolve(values);
+    }
+
+    @Test
+    public void shouldDispatchBatchWhenItIsFull() {
+        // given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 3, 10_000);
+        Promise<String> first = loader.load(1);
+        Promise<String> second = loader.load(2);
+
+        // when
+        loader.load(3).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals(Arrays.asList(Arrays.asList(1, 2, 3)), batches);
+        assertEquals("value3", resolvedValue);
+        first.then(v -> resolvedValue = v);
+        assertEquals("value1", resolvedValue);
+        second.then(v -> resolvedValue = v);
+        assertEquals("value2", resolvedValue);
+    }
+
+    @Test
+    public void shouldDispatchBatchAfterDelay() throws InterruptedException {
+        // given
+        CountDownLatch latch = new CountDownLatch(2);
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 100, 200);
+
+        // when
+        loader.load(1).then(v -> latch.countDown());
+        loader.load(2).then(v -> latch.countDown());
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(Arrays.asList(1, 2)), batches);
+    }
+
+    @Test
+    public void shouldLoadTheSameKeyOncePerBatch() {
+        // given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 100, 10_000);
+        Promise<String> first = loader.load(1);
+
+        // when
+        Promise<String> second = loader.load(1);
+        loader.flush();
+
+        // then
+        assertSame(first, second);
+        assertEquals(Arrays.asList(Arrays.asList(1)), batches);
+    }
+
+    @Test
+    public void shouldStartNewBatchAfterDispatch() {
+        // given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 1, 10_000);
+
+        // when
+        loader.load(1);
+        loader.load(1);
+
+        // then
+        assertEquals(Arrays.asList(Arrays.asList(1), Arrays.asList(1)), batches);
+    }
+
+    @Test
+    public void shouldNotScheduleTimerForBatchFullOnCreation() {
+        // given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 1, 10_000);
+        int pending = Timers.timer.pending();
+
+        // when
+        loader.load(1);
+
+        // then
+        assertEquals(pending, Timers.timer.pending());
+    }
+
+    @Test
+    public void shouldResolveNullForKeysMissingInLoadedValues() {
+        // given
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> Promise.resolve(new HashMap<>()), 1, 0);
+        resolvedValue = "not null";
+
+        // when
+        loader.load(1).then(v -> resolvedValue = v);
+
+        // then
+        assertNull(resolvedValue);
+    }
+
+    @Test
+    public void shouldRejectAllPromisesOfBatchWhenBulkLoaderRejected() {
+        // given
+        Throwable exception = new Exception();
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> new Promise<>(p -> p.reject(exception)), 2, 0);
+        Promise<String> first = loader.load(1);
+
+        // when
+        loader.load(2);
+
+        // then
+        first.catchVoid(e -> caughtException = e);
+        assertSame(exception, caughtException);
+    }
+
+    @Test
+    public void shouldRejectAllPromisesOfBatchWhenBulkLoaderThrowsException() {
+        // given
+        RuntimeException exception = new RuntimeException();
+        BatchLoader<Integer, String> loader = new BatchLoader<>(keys -> {
+            throw exception;
+        }, 1, 0);
+
+        // when
+        loader.load(1).catchVoid(e -> caughtException = e);
+
+        // then
+        assertSame(exception, caughtException);
+    }
+
+    @Test
+    public void shouldLoadKeysRequestedByManyThreads() throws InterruptedException {
+        // given
+        int threads = 8, keysPerThread = 1000;
+        BatchLoader<Integer, String> loader = new BatchLoader<>(this::loadAll, 64, 1);
+        CountDownLatch latch = new CountDownLatch(threads * keysPerThread);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            int first = t * keysPerThread;
+            new Thread(() -> {
+                for (int key = first; key < first + keysPerThread; key++) {
+                    String expected = "value" + key;
+                    loader.load(key).then(v -> {
+                        if (expected.equals(v)) latch.countDown();
+                    });
+                }
+            }).start();
+        }
+
+        // then
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        for (List<Integer> batch : batches) {
+            assertTrue(batch.size() <= 64);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNullKey() {
+        new BatchLoader<>(this::loadAll, 1, 0).load(null);
+    }
+
+}
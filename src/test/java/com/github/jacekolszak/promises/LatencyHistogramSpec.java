@@ -0,0 +1,49 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramSpec {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void shouldReturnZeroWhenNothingWasRecorded() {
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.valueAtPercentile(99));
+        assertEquals(0, histogram.mean(), 0);
+    }
+
+    @Test
+    public void shouldReturnPercentilesWithLimitedPrecision() {
+        // given
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        // then
+        assertEquals(1000, histogram.count());
+        assertEquals(1_000_000, histogram.max());
+        assertEquals(500_500, histogram.mean(), 0.001);
+        assertEquals(500_000, histogram.valueAtPercentile(50), 500_000 * 0.07);
+        assertEquals(990_000, histogram.valueAtPercentile(99), 990_000 * 0.07);
+        assertEquals(1_000_000, histogram.valueAtPercentile(100));
+    }
+
+    @Test
+    public void shouldKeepEveryValueInBucketWithNoGaps() {
+        for (int bucket = 1; bucket < 959; bucket++) {
+            long lowest = LatencyHistogram.lowestValue(bucket);
+            assertEquals(bucket, LatencyHistogram.bucket(lowest));
+            assertEquals(bucket - 1, LatencyHistogram.bucket(lowest - 1));
+        }
+        assertEquals(959, LatencyHistogram.bucket(Long.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowPercentileAbove100() {
+        histogram.valueAtPercentile(101);
+    }
+
+}
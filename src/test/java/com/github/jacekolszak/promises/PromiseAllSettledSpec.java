@@ -0,0 +1,94 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class PromiseAllSettledSpec {
+
+    private PromiseOutcomes outcomes;
+
+    private Throwable caughtException;
+
+    @Test
+    public void shouldResolveWithOutcomesOfAllPassedArguments() {
+        // given
+        Throwable exception = new Exception();
+
+        // when
+        Promise.allSettled(Promise.resolve(1), Promise.reject(exception), 3).
+                then(o -> outcomes = o);
+
+        // then
+        assertEquals(3, outcomes.size());
+        assertTrue(outcomes.isResolved(0));
+        assertEquals(1, outcomes.value(0));
+        assertTrue(outcomes.isRejected(1));
+        assertSame(exception, outcomes.exception(1));
+        assertTrue(outcomes.isResolved(2));
+        assertEquals(3, outcomes.value(2));
+    }
+
+    @Test
+    public void shouldWaitForAllPromisesEvenIfOneWasRejected() {
+        // given
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[2];
+        Promise.allSettled(
+                new Promise<>(p -> callbacks[0] = p),
+                new Promise<>(p -> callbacks[1] = p)
+        ).then(o -> outcomes = o);
+
+        // when
+        callbacks[0].reject(new Exception());
+
+        // then
+        assertNull(outcomes);
+
+        // when
+        callbacks[1].resolve("OK");
+
+        // then
+        assertTrue(outcomes.isRejected(0));
+        assertEquals("OK", outcomes.value(1));
+    }
+
+    @Test
+    public void shouldKeepRejectionsOfManyPromises() {
+        // given
+        Object[] values = new Object[130];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = i % 3 == 0 ? Promise.reject(new Exception()) : Promise.resolve(i);
+        }
+
+        // when
+        Promise.allSettled(values).then(o -> outcomes = o);
+
+        // then
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(i % 3 == 0, outcomes.isRejected(i));
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotReturnValueOfRejectedPromise() {
+        Promise.allSettled(Promise.reject(new Exception())).then(o -> outcomes = o);
+
+        outcomes.value(0);
+    }
+
+    @Test
+    public void shouldRejectPromiseWhenArrayIsNull() {
+        Object[] args = null;
+        Promise.allSettled(args).catchVoid(t -> caughtException = t);
+
+        assertTrue(caughtException instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldResolvePromiseForEmptyArray() {
+        Promise.allSettled().then(o -> outcomes = o);
+
+        assertEquals(0, outcomes.size());
+    }
+
+}
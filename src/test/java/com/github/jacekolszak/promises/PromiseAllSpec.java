@@ -59,4 +59,48 @@ public class PromiseAllSpec {
         assertArrayEquals(arrayOfNulls, resolvedArray);
     }
 
+    @Test
+    public void shouldKeepOrderOfArgumentsWhenPromisesAreResolvedInReverseOrder() {
+        // given
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[3];
+        Promise.all(
+                new Promise<>(p -> callbacks[0] = p),
+                new Promise<>(p -> callbacks[1] = p),
+                new Promise<>(p -> callbacks[2] = p)
+        ).then(arr -> resolvedArray = arr);
+
+        // when
+        callbacks[2].resolve(3);
+        callbacks[1].resolve(2);
+        callbacks[0].resolve(1);
+
+        // then
+        assertArrayEquals(new Object[]{ 1, 2, 3 }, resolvedArray);
+    }
+
+    @Test
+    public void shouldResolveThenables() {
+        Promise.all(new ThenableSpec().new ResolvingThenable(), 2).
+                then(arr -> resolvedArray = arr);
+
+        assertArrayEquals(new Object[]{ "OK", 2 }, resolvedArray);
+    }
+
+    @Test
+    public void shouldNotResolveAfterRejection() {
+        // given
+        Throwable exception = new Exception();
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[1];
+        Promise.all(new Promise<>(p -> callbacks[0] = p), Promise.reject(exception)).
+                then(arr -> resolvedArray = arr).
+                catchVoid(e -> caughtException = e);
+
+        // when
+        callbacks[0].resolve(1);
+
+        // then
+        assertNull(resolvedArray);
+        assertEquals(exception, caughtException);
+    }
+
 }
@@ -0,0 +1,75 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class PromiseAnySpec {
+
+    private Object resolvedValue;
+
+    private Throwable caughtException;
+
+    @Test
+    public void shouldResolveWithFirstResolvedValue() {
+        // given
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[3];
+        Promise.any(
+                new Promise<>(p -> callbacks[0] = p),
+                new Promise<>(p -> callbacks[1] = p),
+                new Promise<>(p -> callbacks[2] = p)
+        ).then(v -> resolvedValue = v);
+
+        // when
+        callbacks[0].reject(new Exception());
+        callbacks[2].resolve("third");
+
+        // then
+        assertEquals("third", resolvedValue);
+    }
+
+    @Test
+    public void shouldCancelRemainingPromisesWhenResolved() {
+        // given
+        Promise<Object> pending = new Promise<>(p -> {
+        });
+
+        // when
+        Promise.any(pending, Promise.resolve(1));
+
+        // then
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void shouldRejectWithAllExceptionsWhenAllPromisesWereRejected() {
+        // given
+        Throwable first = new Exception();
+        Throwable second = new Exception();
+
+        // when
+        Promise.any(Promise.reject(first), Promise.reject(second)).catchVoid(e -> caughtException = e);
+
+        // then
+        assertTrue(caughtException instanceof AggregateException);
+        assertEquals(Arrays.asList(first, second), ((AggregateException) caughtException).getExceptions());
+    }
+
+    @Test
+    public void shouldRejectPromiseWhenArrayIsNull() {
+        Object[] args = null;
+        Promise.any(args).catchVoid(t -> caughtException = t);
+
+        assertTrue(caughtException instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldRejectPromiseForEmptyArray() {
+        Promise.any().catchVoid(t -> caughtException = t);
+
+        assertTrue(caughtException instanceof AggregateException);
+    }
+
+}
@@ -0,0 +1,198 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PromiseAsyncSpec {
+
+    private static final String THREAD_NAME = "async-callbacks";
+
+    private final CountingExecutor executor = new CountingExecutor();
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    private PromiseCallbacks<Integer> callbacks;
+
+    private volatile Object resolvedValue;
+
+    private volatile String callbackThread;
+
+    @After
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    public void thenCallbackShouldBeExecutedByExecutor() throws InterruptedException {
+        // when
+        Promise.resolve("OK").
+                thenReturnAsync(s -> {
+                    callbackThread = Thread.currentThread().getName();
+                    return s;
+                }, executor).
+                then(s -> {
+                    resolvedValue = s;
+                    latch.countDown();
+                });
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("OK", resolvedValue);
+        assertEquals(THREAD_NAME, callbackThread);
+    }
+
+    @Test
+    public void catchCallbackShouldBeExecutedByExecutor() throws InterruptedException {
+        // when
+        Promise.reject(new Exception()).
+                catchReturnAsync(e -> {
+                    callbackThread = Thread.currentThread().getName();
+                    return "OK";
+                }, executor).
+                then(s -> {
+                    resolvedValue = s;
+                    latch.countDown();
+                });
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("OK", resolvedValue);
+        assertEquals(THREAD_NAME, callbackThread);
+    }
+
+    @Test
+    public void consecutiveCallbacksUsingTheSameExecutorShouldBeExecutedInOneTask() throws InterruptedException {
+        // given
+        new Promise<Integer>(p -> callbacks = p).
+                thenReturnAsync(i -> i + 1, executor).
+                thenReturnAsync(i -> i + 1, executor).
+                thenReturnAsync(i -> i + 1, executor).
+                then(i -> {
+                    resolvedValue = i;
+                    latch.countDown();
+                });
+
+        // when
+        callbacks.resolve(0);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(3, resolvedValue);
+        assertEquals(1, executor.submittedTasks.get());
+    }
+
+    @Test
+    public void skippedCallbackShouldNotBeSubmittedToExecutor() {
+        // when
+        Promise.resolve("OK").
+                catchReturnAsync(e -> "ERROR", executor).
+                then(s -> resolvedValue = s);
+
+        // then
+        assertEquals("OK", resolvedValue);
+        assertEquals(0, executor.submittedTasks.get());
+    }
+
+    @Test
+    public void promiseShouldBeRejectedWhenExecutorRejectsCallback() {
+        // given
+        executor.shutdown();
+
+        // when
+        Promise.resolve("OK").
+                thenReturnAsync(s -> s, executor).
+                catchVoid(e -> resolvedValue = e);
+
+        // then
+        assertTrue(resolvedValue instanceof RejectedExecutionException);
+    }
+
+    @Test
+    public void nullExecutorShouldUseDefaultOne() throws InterruptedException {
+        // when
+        Promise.resolve("OK").
+                thenReturnAsync(s -> s, null).
+                then(s -> {
+                    resolvedValue = s;
+                    latch.countDown();
+                });
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void callbacksOfPromisesChainedFromPromiseWithDefaultExecutorShouldBeExecutedByIt()
+            throws InterruptedException {
+        // given
+        new Promise<Integer>(p -> callbacks = p).
+                withDefaultExecutor(executor).
+                thenReturn(i -> i + 1).
+                thenReturn(i -> i + 1).
+                then(i -> {
+                    resolvedValue = i;
+                    callbackThread = Thread.currentThread().getName();
+                    latch.countDown();
+                });
+
+        // when
+        callbacks.resolve(0);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(2, resolvedValue);
+        assertEquals(THREAD_NAME, callbackThread);
+        assertEquals(1, executor.submittedTasks.get());
+    }
+
+    @Test
+    public void asyncCallbackCanBeAddedToAnyThenable() throws InterruptedException {
+        // given
+        Thenable<String> thenable = new ThenableSpec().new ResolvingThenable();
+
+        // when
+        thenable.thenReturnAsync(s -> {
+            callbackThread = Thread.currentThread().getName();
+            return s;
+        }, executor).then(s -> {
+            resolvedValue = s;
+            latch.countDown();
+        });
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals("OK", resolvedValue);
+        assertEquals(THREAD_NAME, callbackThread);
+    }
+
+    static class CountingExecutor implements Executor {
+
+        final AtomicInteger submittedTasks = new AtomicInteger();
+
+        private final ExecutorService executorService =
+                Executors.newSingleThreadExecutor(runnable -> new Thread(runnable, THREAD_NAME));
+
+        @Override
+        public void execute(Runnable command) {
+            executorService.execute(command);
+            submittedTasks.incrementAndGet();
+        }
+
+        void shutdown() {
+            executorService.shutdown();
+        }
+
+    }
+
+}
@@ -0,0 +1,223 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseCacheSpec {
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<PromiseCallbacks<String>> pendingLoads = new ArrayList<>();
+
+    private Object resolvedValue;
+
+    private Thenable<String> load(Integer key) {
+        loads.incrementAndGet();
+        return Promise.resolve("value" + key);
+    }
+
+    private synchronized Thenable<String> pendingLoad(Integer key) {
+        loads.incrementAndGet();
+        return new Promise<>(pendingLoads::add);
+    }
+
+    @Test
+    public void shouldReturnTheSamePromiseWhileLoading() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::pendingLoad, 10, Long.MAX_VALUE);
+        Promise<String> first = cache.get(1);
+
+        // when
+        Promise<String> second = cache.get(1);
+
+        // then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void shouldKeepResolvedValue() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, 10, Long.MAX_VALUE);
+        cache.get(1);
+
+        // when
+        cache.get(1).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("value1", resolvedValue);
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+        assertEquals(1, cache.loadSuccessCount());
+    }
+
+    @Test
+    public void shouldLoadValueAgainAfterTimeToLive() throws InterruptedException {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, 10, 5);
+        cache.get(1);
+        Thread.sleep(20);
+
+        // when
+        cache.get(1);
+
+        // then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldRemoveRejectedPromise() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::pendingLoad, 10, Long.MAX_VALUE);
+        cache.get(1);
+
+        // when
+        pendingLoads.get(0).reject(new Exception());
+
+        // then
+        assertEquals(0, cache.size());
+        assertEquals(1, cache.loadFailureCount());
+        cache.get(1);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldRemovePromiseWhenLoaderThrowsException() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(key -> {
+            throw new RuntimeException();
+        }, 10, Long.MAX_VALUE);
+
+        // when
+        cache.get(1);
+
+        // then
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntry() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, 2, Long.MAX_VALUE);
+        cache.get(1);
+        cache.get(2);
+        cache.get(1);
+
+        // when
+        cache.get(3);
+
+        // then
+        assertEquals(2, cache.size());
+        cache.get(1);
+        assertEquals(3, loads.get());
+        cache.get(2);
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    public void shouldNotEvictEntryWhileLoading() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::pendingLoad, 1, Long.MAX_VALUE);
+        Promise<String> first = cache.get(1);
+        cache.get(2);
+
+        // when
+        Promise<String> second = cache.get(1);
+
+        // then
+        assertSame(first, second);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldEvictEntryOnceLoadedWhenCacheIsFull() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::pendingLoad, 1, Long.MAX_VALUE);
+        cache.get(1);
+        cache.get(2);
+        assertEquals(2, cache.size());
+
+        // when
+        pendingLoads.get(0).resolve("value1");
+
+        // then
+        assertEquals(1, cache.size());
+        cache.get(1);
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void shouldLoadAgainAfterInvalidate() {
+        // given
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, 10, Long.MAX_VALUE);
+        cache.get(1);
+
+        // when
+        cache.invalidate(1);
+
+        // then
+        cache.get(1);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void shouldLoadEachKeyOnceWhenRequestedByManyThreads() throws InterruptedException {
+        // given
+        int threads = 8, keys = 100;
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, keys, Long.MAX_VALUE);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    cache.get(i % keys);
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        // then
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(keys, loads.get());
+        assertEquals(keys, cache.size());
+        assertEquals(threads * 10_000, cache.hitCount() + cache.missCount());
+    }
+
+    @Test
+    public void shouldKeepSizeBoundWhenRequestedByManyThreads() throws InterruptedException {
+        // given
+        int threads = 8;
+        PromiseCache<Integer, String> cache = new PromiseCache<>(this::load, 50, Long.MAX_VALUE);
+        CountDownLatch latch = new CountDownLatch(threads);
+
+        // when
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    cache.get((i * 31 + seed) % 1000);
+                }
+                latch.countDown();
+            }).start();
+        }
+
+        // then
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertTrue(cache.size() <= 50);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNullKey() {
+        new PromiseCache<>(this::load, 1, 0).get(null);
+    }
+
+}
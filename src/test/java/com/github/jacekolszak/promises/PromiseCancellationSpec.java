@@ -0,0 +1,247 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseCancellationSpec {
+
+    private final AtomicInteger cancellations = new AtomicInteger();
+
+    private PromiseCallbacks<String> callbacks;
+
+    private Throwable rejectedException;
+
+    private Object resolvedValue;
+
+    @Test
+    public void cancelledPromiseShouldBeRejectedWithCancellationException() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        promise.catchVoid(e -> rejectedException = e);
+
+        // when
+        boolean cancelled = promise.cancel();
+
+        // then
+        assertTrue(cancelled);
+        assertTrue(promise.isCancelled());
+        assertTrue(rejectedException instanceof CancellationException);
+        assertEquals(1, cancellations.get());
+    }
+
+    @Test
+    public void settledPromiseCannotBeCancelled() {
+        // given
+        Promise<String> promise = Promise.resolve("OK");
+
+        // when
+        boolean cancelled = promise.cancel();
+
+        // then
+        assertFalse(cancelled);
+        assertFalse(promise.isCancelled());
+    }
+
+    @Test
+    public void cancelledPromiseCannotBeResolved() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        promise.then(s -> resolvedValue = s);
+        promise.cancel();
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        assertNull(resolvedValue);
+    }
+
+    @Test
+    public void executorShouldSeeThatPromiseWasCancelled() {
+        // given
+        Promise<String> promise = cancellablePromise();
+
+        // when
+        promise.cancel();
+
+        // then
+        assertTrue(callbacks.isCancelled());
+    }
+
+    @Test
+    public void cancelCallbackAddedToCancelledPromiseShouldBeExecutedImmediately() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        promise.cancel();
+
+        // when
+        callbacks.onCancel(cancellations::incrementAndGet);
+
+        // then
+        assertEquals(2, cancellations.get());
+    }
+
+    @Test
+    public void cancelCallbackShouldNotBeExecutedWhenPromiseIsRejected() {
+        // when
+        cancellablePromise();
+        callbacks.reject(new Exception());
+
+        // then
+        assertEquals(0, cancellations.get());
+    }
+
+    @Test
+    public void cancellationShouldBePropagatedDownstream() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        promise.thenReturn(s -> s).
+                thenReturn(s -> s).
+                catchVoid(e -> rejectedException = e);
+
+        // when
+        promise.cancel();
+
+        // then
+        assertTrue(rejectedException instanceof CancellationException);
+    }
+
+    @Test
+    public void cancellationShouldBePropagatedUpstream() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<String> last = promise.thenReturn(s -> s).thenReturn(s -> s);
+
+        // when
+        last.cancel();
+
+        // then
+        assertTrue(promise.isCancelled());
+        assertEquals(1, cancellations.get());
+    }
+
+    @Test
+    public void cancellationShouldNotBePropagatedUpstreamWhenOtherPromiseWaitsForIt() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<String> first = promise.thenReturn(s -> s);
+        promise.then(s -> resolvedValue = s);
+
+        // when
+        first.cancel();
+        callbacks.resolve("OK");
+
+        // then
+        assertFalse(promise.isCancelled());
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void cancellationShouldNotBePropagatedUpstreamWhenOtherPromiseStartedWaitingConcurrently()
+            throws InterruptedException {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<String> first = promise.thenReturn(s -> s);
+        promise.addNext(new Promise<Object>(false) {
+            @Override
+            boolean isWaiting() {
+                // another thread registers a dependent while the cancelling thread checks the dependents
+                Thread thread = new Thread(() -> promise.then(s -> resolvedValue = s));
+                thread.start();
+                try {
+                    thread.join();
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return false;
+            }
+        });
+
+        // when
+        first.cancel();
+        callbacks.resolve("OK");
+
+        // then
+        assertFalse(promise.isCancelled());
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void cancellationShouldBePropagatedToAdoptedPromise() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<String> adopting = (Promise<String>) Promise.resolve("OK").thenPromise(s -> promise);
+
+        // when
+        adopting.cancel();
+
+        // then
+        assertTrue(promise.isCancelled());
+    }
+
+    @Test
+    public void raceShouldCancelLosers() {
+        // given
+        Promise<String> loser = cancellablePromise();
+
+        // when
+        Promise.race(loser, Promise.resolve("WINNER")).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("WINNER", resolvedValue);
+        assertTrue(loser.isCancelled());
+    }
+
+    @Test
+    public void cancellingRaceShouldCancelAllPromises() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<Object> race = Promise.race(promise, new Promise<>(p -> {
+        }));
+
+        // when
+        race.cancel();
+
+        // then
+        assertTrue(promise.isCancelled());
+    }
+
+    @Test
+    public void allShouldCancelRemainingPromisesWhenOneIsRejected() {
+        // given
+        Promise<String> pending = cancellablePromise();
+        Exception exception = new Exception();
+
+        // when
+        Promise.all(pending, Promise.reject(exception)).catchVoid(e -> rejectedException = e);
+
+        // then
+        assertSame(exception, rejectedException);
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void cancellingAllShouldCancelAllPromises() {
+        // given
+        Promise<String> promise = cancellablePromise();
+        Promise<Object[]> all = Promise.all(promise, "value");
+
+        // when
+        all.cancel();
+
+        // then
+        assertTrue(promise.isCancelled());
+    }
+
+    private Promise<String> cancellablePromise() {
+        return new Promise<>(p -> {
+            callbacks = p;
+            p.onCancel(cancellations::incrementAndGet);
+        });
+    }
+
+}
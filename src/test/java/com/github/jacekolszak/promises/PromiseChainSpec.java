@@ -0,0 +1,160 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PromiseChainSpec {
+
+    private static final int CHAIN_LENGTH = 100_000;
+
+    private Object resolvedValue;
+
+    private Throwable rejectedException;
+
+    @Test
+    public void resolvingPromiseShouldExecuteVeryLongChainOfCallbacks() {
+        // given
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.then(v -> resolvedValue = v);
+
+        // when
+        callbacks[0].resolve(0);
+
+        // then
+        assertEquals(CHAIN_LENGTH, resolvedValue);
+    }
+
+    @Test
+    public void rejectingPromiseShouldPropagateExceptionThroughVeryLongChain() {
+        // given
+        Exception exception = new Exception();
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Thenable<Integer> chain = new Promise<>(p -> callbacks[0] = p);
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.catchVoid(e -> rejectedException = e);
+
+        // when
+        callbacks[0].reject(exception);
+
+        // then
+        assertSame(exception, rejectedException);
+    }
+
+    @Test
+    public void veryLongChainCanBeBuiltOnAlreadyResolvedPromise() {
+        // given
+        Thenable<Integer> chain = Promise.resolve(0);
+
+        // when
+        for (int i = 0; i < CHAIN_LENGTH; i++) {
+            chain = chain.thenReturn(v -> v + 1);
+        }
+        chain.then(v -> resolvedValue = v);
+
+        // then
+        assertEquals(CHAIN_LENGTH, resolvedValue);
+    }
+
+    @Test
+    public void intermediatePromisesOfChainShouldBeSettled() {
+        // given
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Promise<Integer> first = new Promise<Integer>(p -> callbacks[0] = p).thenReturn(v -> v + 1);
+        Promise<Integer> second = first.thenReturn(v -> v + 1);
+        Promise<Integer> third = second.thenReturn(v -> v + 1);
+
+        // when
+        callbacks[0].resolve(0);
+
+        // then
+        assertEquals("Promise(status=RESOLVED, value=1)", first.toString());
+        assertEquals("Promise(status=RESOLVED, value=2)", second.toString());
+        assertEquals("Promise(status=RESOLVED, value=3)", third.toString());
+        second.then(v -> resolvedValue = v);
+        assertEquals(2, resolvedValue);
+    }
+
+    @Test
+    public void callbacksOfChainsDependingOnTheSamePromiseShouldBeExecutedInBreadthFirstOrder() {
+        // given
+        List<String> executed = new ArrayList<>();
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Promise<Integer> promise = new Promise<>(p -> callbacks[0] = p);
+        promise.then(v -> executed.add("a1")).then(v -> executed.add("a2"));
+        promise.then(v -> executed.add("b1")).then(v -> executed.add("b2"));
+
+        // when
+        callbacks[0].resolve(0);
+
+        // then
+        assertEquals(Arrays.asList("a1", "b1", "a2", "b2"), executed);
+    }
+
+    @Test
+    public void callbacksOfPromiseResolvedByChainShouldBeExecutedBeforeNextLinkOfChain() {
+        // given
+        List<String> executed = new ArrayList<>();
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[2];
+        new Promise<Integer>(p -> callbacks[1] = p).then(v -> executed.add("other"));
+        new Promise<Integer>(p -> callbacks[0] = p).
+                then(v -> {
+                    executed.add("first");
+                    callbacks[1].resolve(v);
+                }).
+                then(v -> executed.add("second"));
+
+        // when
+        callbacks[0].resolve(0);
+
+        // then
+        assertEquals(Arrays.asList("first", "other", "second"), executed);
+    }
+
+    @Test
+    public void exceptionThrownInTheMiddleOfChainShouldSkipRemainingLinks() {
+        // given
+        IllegalStateException exception = new IllegalStateException();
+        PromiseCallbacks<Integer>[] callbacks = new PromiseCallbacks[1];
+        Promise<Integer> chain = new Promise<Integer>(p -> callbacks[0] = p).
+                thenReturn(v -> v + 1).
+                thenReturn(v -> {
+                    throw exception;
+                });
+        Promise<Integer> skipped = chain.thenReturn(v -> v + 1);
+        skipped.thenReturn(v -> v + 1).catchReturn(e -> {
+            rejectedException = e;
+            return 0;
+        }).then(v -> resolvedValue = v);
+
+        // when
+        callbacks[0].resolve(0);
+
+        // then
+        assertSame(exception, rejectedException);
+        assertEquals(0, resolvedValue);
+        assertEquals("Promise(status=REJECTED, value=java.lang.IllegalStateException)", skipped.toString());
+    }
+
+    @Test
+    public void veryDeepRecursionOfNestedPromisesShouldBeResolved() {
+        countDown(CHAIN_LENGTH).then(v -> resolvedValue = v);
+
+        assertEquals(0, resolvedValue);
+    }
+
+    private Thenable<Integer> countDown(int i) {
+        return Promise.resolve(i).thenPromise(v -> v == 0 ? Promise.resolve(0) : countDown(v - 1));
+    }
+
+}
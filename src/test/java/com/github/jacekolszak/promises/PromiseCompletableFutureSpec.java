@@ -0,0 +1,173 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+public class PromiseCompletableFutureSpec {
+
+    private final PromiseCallbacks<String>[] callbacks = new PromiseCallbacks[1];
+
+    private final Promise<String> pending = new Promise<>(p -> callbacks[0] = p);
+
+    @Test
+    public void shouldCompleteFutureWhenPromiseIsResolved() throws Exception {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+
+        // when
+        callbacks[0].resolve("OK");
+
+        // then
+        assertEquals("OK", future.get());
+    }
+
+    @Test
+    public void shouldCompleteFutureExceptionallyWhenPromiseIsRejected() throws InterruptedException {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+        Exception exception = new Exception();
+
+        // when
+        callbacks[0].reject(exception);
+
+        // then
+        try {
+            future.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertSame(exception, e.getCause());
+        }
+    }
+
+    @Test
+    public void shouldCreateCompletedFutureOfSettledPromise() {
+        // when
+        CompletableFuture<Object> future = Promise.<Object>resolve(null).toCompletableFuture();
+
+        // then
+        assertTrue(future.isDone());
+        assertNull(future.getNow("not null"));
+    }
+
+    @Test
+    public void shouldCancelPromiseWhenFutureIsCancelled() {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+
+        // when
+        boolean cancelled = future.cancel(false);
+
+        // then
+        assertTrue(cancelled);
+        assertTrue(future.isCancelled());
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void shouldNotCancelPromiseAwaitedByOthers() {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+        pending.then(s -> {
+        });
+
+        // when
+        future.cancel(false);
+
+        // then
+        assertTrue(future.isCancelled());
+        assertTrue(pending.isPending());
+    }
+
+    @Test
+    public void completingFutureShouldNotAffectPromise() throws ExecutionException, InterruptedException {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+
+        // when
+        boolean completed = future.complete("future");
+        callbacks[0].resolve("promise");
+
+        // then
+        assertTrue(completed);
+        assertEquals("future", future.get());
+        Object[] value = new Object[1];
+        pending.then(s -> value[0] = s);
+        assertEquals("promise", value[0]);
+    }
+
+    @Test
+    public void completingFutureExceptionallyShouldNotAffectPromise() {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+        Exception exception = new Exception();
+
+        // when
+        boolean completed = future.completeExceptionally(exception);
+
+        // then
+        assertTrue(completed);
+        assertTrue(future.isCompletedExceptionally());
+        assertTrue(pending.isPending());
+    }
+
+    @Test
+    public void cancellingFutureCompletedByOtherMeansShouldNotCancelPromise() {
+        // given
+        CompletableFuture<String> future = pending.toCompletableFuture();
+        future.complete("future");
+
+        // when
+        boolean cancelled = future.cancel(true);
+
+        // then
+        assertFalse(cancelled);
+        assertFalse(future.isCancelled());
+        assertTrue(pending.isPending());
+    }
+
+    @Test
+    public void futureCompletedByOtherMeansShouldNotStopCancellingUpstream() {
+        // given
+        Promise<String> dependent = pending.thenReturn(s -> s);
+        pending.toCompletableFuture().complete("future");
+
+        // when
+        dependent.cancel();
+
+        // then
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void shouldPassValueToCompletionStage() {
+        // given
+        CompletionStage<String> stage = pending.asCompletionStage();
+        Object[] value = new Object[1];
+        stage.thenApply(String::length).thenAccept(length -> value[0] = length);
+
+        // when
+        callbacks[0].resolve("OK");
+
+        // then
+        assertEquals(2, value[0]);
+    }
+
+    @Test
+    public void shouldConvertPromiseToFutureAndBack() {
+        // given
+        Object[] value = new Object[1];
+        Promise.toPromise(pending.toCompletableFuture()).then(s -> value[0] = s);
+
+        // when
+        callbacks[0].resolve("OK");
+
+        // then
+        assertEquals("OK", value[0]);
+    }
+
+}
@@ -0,0 +1,205 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Test;
+
+public class PromiseDeadlineSpec {
+
+    private PromiseCallbacks<String> callbacks;
+
+    @Test
+    public void shouldRejectPendingPromiseWhenDeadlinePasses() throws InterruptedException {
+        // given
+        CountDownLatch cancelled = new CountDownLatch(1);
+        Promise<String> operation = new Promise<>(p -> p.onCancel(cancelled::countDown));
+        Promise<String> promise = operation.withDeadline(Instant.now().plusMillis(10));
+
+        // when
+        Throwable exception = awaitRejection(promise);
+
+        // then
+        assertTrue(exception instanceof PromiseTimeoutException);
+        assertTrue(cancelled.await(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void shouldRejectAllPendingStagesOfTheChain() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<String>(p -> callbacks = p).withDeadline(Instant.now().plusMillis(10));
+        Thenable<String> first = promise.thenPromise(s -> new Promise<>(p -> {
+        }));
+        Thenable<String> second = promise.thenPromise(s -> new Promise<>(p -> {
+        }));
+        Thenable<Integer> downstream = first.thenReturn(String::length);
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        Throwable exception = awaitRejection(first);
+        assertTrue(exception instanceof PromiseTimeoutException);
+        assertSame(exception, awaitRejection(second));
+        assertSame(exception, awaitRejection(downstream));
+    }
+
+    @Test
+    public void shouldNotAffectPromisesSettledBeforeDeadline() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<String>(p -> callbacks = p).withDeadline(Instant.now().plusMillis(10));
+        Promise<Integer> next = promise.thenReturn(String::length);
+
+        // when
+        callbacks.resolve("OK");
+        Thread.sleep(50);
+
+        // then
+        assertEquals("Promise(status=RESOLVED, value=2)", next.toString());
+    }
+
+    @Test
+    public void shouldRejectPromiseChainedAfterDeadlinePassed() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<String>(p -> {
+        }).withDeadline(Instant.now().plusMillis(10));
+        awaitRejection(promise);
+
+        // when
+        Thenable<String> next = promise.catchReturn(e -> "fallback").thenPromise(s -> new Promise<>(p -> {
+        }));
+
+        // then
+        assertTrue(awaitRejection(next) instanceof PromiseTimeoutException);
+    }
+
+    @Test
+    public void shouldNotExecuteCallbackChainedOnResolvedPromiseAfterDeadlinePassed() throws InterruptedException {
+        // given
+        Promise<String> promise = Promise.resolve("OK").withDeadline(Instant.now().plusMillis(10));
+        Thread.sleep(20);
+        AtomicBoolean executed = new AtomicBoolean();
+
+        // when
+        Promise<Integer> next = promise.thenReturn(s -> {
+            executed.set(true);
+            return s.length();
+        });
+
+        // then
+        assertTrue(awaitRejection(next) instanceof PromiseTimeoutException);
+        assertFalse(executed.get());
+    }
+
+    @Test
+    public void shouldRejectEveryStageChainedAfterDeadlinePassedWithTheSameException() throws InterruptedException {
+        // given
+        Promise<String> promise = Promise.resolve("OK").withDeadline(Instant.now());
+
+        // when
+        Promise<Integer> first = promise.thenReturn(String::length);
+        Promise<Integer> second = promise.thenReturn(String::length);
+
+        // then
+        assertSame(awaitRejection(first), awaitRejection(second));
+    }
+
+    @Test
+    public void callbackShouldReadRemainingTime() throws InterruptedException {
+        // given
+        Instant instant = Instant.now().plusSeconds(10);
+        Promise<String> promise = new Promise<String>(p -> callbacks = p).withDeadline(instant);
+        AtomicReference<Deadline> deadline = new AtomicReference<>();
+        promise.then(s -> deadline.set(Deadline.current()));
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        assertSame(promise.deadline(), deadline.get());
+        assertEquals(instant, deadline.get().instant());
+        long remaining = deadline.get().remaining(TimeUnit.MILLISECONDS);
+        assertTrue(remaining > 0 && remaining <= 10_000);
+        assertFalse(deadline.get().isExpired());
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void shouldKeepEarlierDeadline() {
+        // given
+        Instant instant = Instant.now().plusSeconds(10);
+        Promise<String> promise = Promise.resolve("OK").withDeadline(instant);
+
+        // when
+        Promise<String> later = promise.withDeadline(instant.plusSeconds(10));
+        Promise<String> earlier = promise.withDeadline(instant.minusSeconds(5));
+
+        // then
+        assertSame(promise.deadline(), later.deadline());
+        assertEquals(instant.minusSeconds(5), earlier.deadline().instant());
+    }
+
+    @Test
+    public void shouldKeepDeadlineWhenDefaultExecutorIsChanged() {
+        // given
+        Promise<String> promise = Promise.resolve("OK").withDeadline(Instant.now().plusSeconds(10));
+
+        // when
+        Promise<String> next = promise.withDefaultExecutor(Runnable::run).thenReturn(s -> s);
+
+        // then
+        assertSame(promise.deadline(), next.deadline());
+    }
+
+    @Test
+    public void shouldNotRetainSettledStagesUntilDeadline() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<String>(p -> callbacks = p).withDeadline(Instant.now().plusSeconds(60));
+        WeakReference<Promise<Integer>> stage = new WeakReference<>(promise.thenReturn(String::length));
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        for (int i = 0; i < 50 && stage.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(stage.get());
+    }
+
+    @Test
+    public void shouldRejectNullDeadline() {
+        try {
+            Promise.resolve("OK").withDeadline(null);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Waits using a future, which is not a stage of the chain - a callback chained after the deadline passed would
+     * not be executed
+     */
+    private static Throwable awaitRejection(Thenable<?> promise) throws InterruptedException {
+        try {
+            ((Promise<?>) promise).toCompletableFuture().get(1, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            return e.getCause();
+        } catch (TimeoutException e) {
+            fail("Promise was not rejected");
+        }
+        fail("Promise was resolved");
+        return null;
+    }
+
+}
@@ -63,6 +63,47 @@ public class PromiseFactoryMethodsSpec {
         assertSame(exception, resolvedValue);
     }
 
+    @Test
+    public void shouldCreateResolvedPromiseFromCompletedFuture() {
+        // when
+        Promise<String> promise = toPromise(CompletableFuture.completedFuture("OK"));
+
+        // then
+        assertFalse(promise.isPending());
+        promise.then(s -> resolvedValue = s);
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void shouldCreateRejectedPromiseFromFailedFuture() {
+        // given
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Exception exception = new Exception();
+        future.completeExceptionally(exception);
+
+        // when
+        Promise<String> promise = toPromise(future);
+
+        // then
+        assertFalse(promise.isPending());
+        promise.catchVoid(e -> resolvedValue = e);
+        assertSame(exception, resolvedValue);
+    }
+
+    @Test
+    public void shouldUnwrapCompletionException() {
+        // given
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Exception exception = new Exception();
+        toPromise(future.thenApply(s -> s)).catchVoid(e -> resolvedValue = e);
+
+        // when
+        future.completeExceptionally(exception);
+
+        // then
+        assertSame(exception, resolvedValue);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void shouldThrowIllegalArgumentExceptionWhenCompletableFutureIsNull() {
         toPromise(null);
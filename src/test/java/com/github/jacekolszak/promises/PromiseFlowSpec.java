@@ -0,0 +1,385 @@
+package com.github.jacekolszak.promises;
+
+import static com.github.jacekolszak.promises.PromiseFlow.Order.COMPLETION;
+import static com.github.jacekolszak.promises.PromiseFlow.Order.SOURCE;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+
+public class PromiseFlowSpec {
+
+    private final List<PromiseCallbacks<String>> started = new ArrayList<>();
+
+    private final List<Promise<String>> pulled = new ArrayList<>();
+
+    private final TestSubscriber<String> subscriber = new TestSubscriber<>();
+
+    private Iterator<Promise<String>> pendingPromises(int count) {
+        return new Iterator<Promise<String>>() {
+            @Override
+            public boolean hasNext() {
+                return pulled.size() < count;
+            }
+
+            @Override
+            public Promise<String> next() {
+                Promise<String> promise = new Promise<>(started::add);
+                pulled.add(promise);
+                return promise;
+            }
+        };
+    }
+
+    @Test
+    public void shouldNotPullThenablesUntilValuesAreRequested() {
+        // given
+        PromiseFlow.from(pendingPromises(5), 10, COMPLETION).subscribe(subscriber);
+        assertEquals(0, started.size());
+
+        // when
+        subscriber.subscription.request(2);
+
+        // then
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void shouldEmitValuesInOrderOfCompletion() {
+        // given
+        PromiseFlow.from(pendingPromises(3), 3, COMPLETION).subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        // when
+        started.get(2).resolve("c");
+        started.get(0).resolve("a");
+        started.get(1).resolve("b");
+
+        // then
+        assertEquals(Arrays.asList("c", "a", "b"), subscriber.values);
+    }
+
+    @Test
+    public void shouldEmitValuesInOrderOfSource() {
+        // given
+        PromiseFlow.from(pendingPromises(3), 3, SOURCE).subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        // when
+        started.get(2).resolve("c");
+        started.get(1).resolve("b");
+        assertEquals(0, subscriber.values.size());
+        started.get(0).resolve("a");
+
+        // then
+        assertEquals(Arrays.asList("a", "b", "c"), subscriber.values);
+    }
+
+    @Test
+    public void shouldKeepAtMostMaxInFlightValuesNotEmitted() {
+        // given
+        PromiseFlow.from(pendingPromises(10), 3, SOURCE).subscribe(subscriber);
+        subscriber.subscription.request(Long.MAX_VALUE);
+        assertEquals(3, started.size());
+
+        // when
+        started.get(1).resolve("b");
+        started.get(2).resolve("c");
+
+        // then
+        assertEquals(3, started.size());
+
+        // when
+        started.get(0).resolve("a");
+
+        // then
+        assertEquals(6, started.size());
+        assertEquals(Arrays.asList("a", "b", "c"), subscriber.values);
+    }
+
+    @Test
+    public void shouldCompleteWhenMoreValuesWereRequestedThanSourceHas() {
+        // given
+        PromiseFlow.from(Arrays.asList(Promise.resolve("a"), Promise.resolve("b")), 1, SOURCE).
+                subscribe(subscriber);
+        subscriber.subscription.request(2);
+        assertFalse(subscriber.completed);
+
+        // when
+        subscriber.subscription.request(1);
+
+        // then
+        assertEquals(Arrays.asList("a", "b"), subscriber.values);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void shouldCompleteEmptySourceOnceValueIsRequested() {
+        // given
+        PromiseFlow.from(new ArrayList<Promise<String>>(), 1, COMPLETION).subscribe(subscriber);
+        assertFalse(subscriber.completed);
+
+        // when
+        subscriber.subscription.request(1);
+
+        // then
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void shouldNotStartOperationsOfLazilyMappedStreamBeyondRequested() {
+        // given
+        Iterator<Promise<String>> operations = Stream.of("a", "b", "c").map(s -> {
+            Promise<String> promise = new Promise<>(started::add);
+            pulled.add(promise);
+            return promise;
+        }).iterator();
+        PromiseFlow.from(operations, 1, COMPLETION).subscribe(subscriber);
+        assertEquals(0, started.size());
+
+        // when
+        subscriber.subscription.request(1);
+        started.get(0).resolve("a");
+
+        // then
+        assertEquals(Arrays.asList("a"), subscriber.values);
+        assertEquals(1, started.size());
+
+        // when
+        subscriber.subscription.request(1);
+        subscriber.subscription.cancel();
+
+        // then
+        assertEquals(2, started.size());
+        assertTrue(pulled.get(1).isCancelled());
+    }
+
+    @Test
+    public void shouldExecuteSupplierOnlyWhenValueIsRequested() {
+        // given
+        AtomicInteger supplied = new AtomicInteger();
+        PromiseFlow.<String>generate(() -> supplied.incrementAndGet() <= 3 ? Promise.resolve("v") : null, 10,
+                COMPLETION).subscribe(subscriber);
+        assertEquals(0, supplied.get());
+
+        // when
+        subscriber.subscription.request(3);
+
+        // then
+        assertEquals(3, supplied.get());
+        assertFalse(subscriber.completed);
+
+        // when
+        subscriber.subscription.request(1);
+
+        // then
+        assertEquals(Arrays.asList("v", "v", "v"), subscriber.values);
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void shouldTerminateWithErrorAndCancelPendingThenablesWhenThenableIsRejected() {
+        // given
+        Exception exception = new Exception();
+        PromiseFlow.from(pendingPromises(3), 3, COMPLETION).subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        // when
+        started.get(1).reject(exception);
+
+        // then
+        assertSame(exception, subscriber.error);
+        assertTrue(pulled.get(0).isCancelled());
+        assertTrue(pulled.get(2).isCancelled());
+        assertFalse(subscriber.completed);
+    }
+
+    @Test
+    public void cancellingSubscriptionShouldCancelPendingThenables() {
+        // given
+        PromiseFlow.from(pendingPromises(3), 3, COMPLETION).subscribe(subscriber);
+        subscriber.subscription.request(2);
+
+        // when
+        subscriber.subscription.cancel();
+
+        // then
+        assertTrue(pulled.get(0).isCancelled());
+        assertTrue(pulled.get(1).isCancelled());
+        assertNull(subscriber.error);
+        assertFalse(subscriber.completed);
+        subscriber.subscription.request(1);
+        assertEquals(2, started.size());
+    }
+
+    @Test
+    public void shouldTerminateWithErrorWhenRequestIsNotPositive() {
+        // given
+        PromiseFlow.from(pendingPromises(3), 3, COMPLETION).subscribe(subscriber);
+
+        // when
+        subscriber.subscription.request(0);
+
+        // then
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldTerminateWithErrorAndCancelPendingThenablesWhenRequestIsNotPositive() {
+        // given
+        PromiseFlow.from(pendingPromises(3), 3, COMPLETION).subscribe(subscriber);
+        subscriber.subscription.request(3);
+
+        // when
+        subscriber.subscription.request(-1);
+
+        // then
+        assertTrue(subscriber.error instanceof IllegalArgumentException);
+        assertTrue(pulled.get(0).isCancelled());
+        assertTrue(pulled.get(2).isCancelled());
+    }
+
+    @Test
+    public void shouldTerminateWithErrorWhenThenableResolvesWithNull() {
+        // when
+        PromiseFlow.from(Arrays.asList(Promise.resolve((String) null)), 1, COMPLETION).subscribe(subscriber);
+        subscriber.subscription.request(1);
+
+        // then
+        assertTrue(subscriber.error instanceof NullPointerException);
+    }
+
+    @Test
+    public void publisherOfIteratorShouldRejectSecondSubscriber() {
+        // given
+        PromiseFlow.Publisher<String> publisher = PromiseFlow.from(pendingPromises(1), 1, COMPLETION);
+        publisher.subscribe(subscriber);
+        TestSubscriber<String> second = new TestSubscriber<>();
+
+        // when
+        publisher.subscribe(second);
+
+        // then
+        assertTrue(second.error instanceof IllegalStateException);
+        assertNull(subscriber.error);
+    }
+
+    @Test
+    public void shouldEmitManyValuesRequestedOneByOneFromOnNext() {
+        // given
+        int count = 100_000;
+        AtomicInteger supplied = new AtomicInteger();
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer item) {
+                super.onNext(item);
+                subscription.request(1);
+            }
+        };
+        PromiseFlow.generate(() -> {
+            int value = supplied.incrementAndGet();
+            return value <= count ? Promise.resolve(value) : null;
+        }, 1, SOURCE).subscribe(subscriber);
+
+        // when
+        subscriber.subscription.request(1);
+
+        // then
+        assertEquals(count, subscriber.values.size());
+        assertTrue(subscriber.completed);
+    }
+
+    @Test
+    public void shouldNotEmitConcurrentlyWhenThenablesAreResolvedByManyThreads() throws InterruptedException {
+        // given
+        int count = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicBoolean emitting = new AtomicBoolean();
+        AtomicBoolean overlapped = new AtomicBoolean();
+        CountDownLatch terminated = new CountDownLatch(1);
+        TestSubscriber<Integer> subscriber = new TestSubscriber<Integer>() {
+            @Override
+            public void onNext(Integer item) {
+                if (!emitting.compareAndSet(false, true)) {
+                    overlapped.set(true);
+                }
+                super.onNext(item);
+                emitting.set(false);
+            }
+
+            @Override
+            public void onComplete() {
+                super.onComplete();
+                terminated.countDown();
+            }
+        };
+        AtomicInteger supplied = new AtomicInteger();
+        PromiseFlow.generate(() -> {
+            int value = supplied.getAndIncrement();
+            return value < count ? new Promise<Integer>(p -> executor.execute(() -> p.resolve(value))) : null;
+        }, 16, SOURCE).subscribe(subscriber);
+
+        // when
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        // then
+        try {
+            assertTrue(terminated.await(10, TimeUnit.SECONDS));
+            assertFalse(overlapped.get());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i, (int) subscriber.values.get(i));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNotPositiveMaxInFlight() {
+        PromiseFlow.from(pendingPromises(1), 0, COMPLETION);
+    }
+
+    private static class TestSubscriber<T> implements PromiseFlow.Subscriber<T> {
+
+        PromiseFlow.Subscription subscription;
+
+        final List<T> values = new ArrayList<>();
+
+        volatile Throwable error;
+
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(PromiseFlow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(T item) {
+            values.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed = true;
+        }
+
+    }
+
+}
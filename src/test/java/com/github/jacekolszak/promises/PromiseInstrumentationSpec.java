@@ -0,0 +1,160 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class PromiseInstrumentationSpec {
+
+    private final List<String> events = new ArrayList<>();
+
+    private final PromiseInstrumentation recorder = new PromiseInstrumentation() {
+        @Override
+        public Object created(Promise<?> promise) {
+            events.add("created");
+            return "context";
+        }
+
+        @Override
+        public void settled(Promise<?> promise, Object context, boolean resolved) {
+            events.add((resolved ? "resolved " : "rejected ") + context);
+        }
+
+        @Override
+        public Object callbackStarted(Promise<?> promise) {
+            events.add("callbackStarted");
+            return null;
+        }
+
+        @Override
+        public void callbackEnded(Promise<?> promise, Object context, Throwable exception) {
+            events.add("callbackEnded " + (exception != null ? "exceptionally" : "normally"));
+        }
+    };
+
+    @After
+    public void uninstall() {
+        PromiseInstrumentation.install(null);
+    }
+
+    @Test
+    public void shouldReportCreationAndSettlement() {
+        // given
+        PromiseInstrumentation.install(recorder);
+
+        // when
+        new Promise<>(p -> p.resolve(1));
+        new Promise<>(p -> p.reject(new Exception()));
+
+        // then
+        assertEquals(Arrays.asList("created", "resolved context", "created", "rejected context"), events);
+    }
+
+    @Test
+    public void shouldReportCallbacks() {
+        // given
+        PromiseInstrumentation.install(recorder);
+        Promise<Integer> promise = Promise.resolve(1);
+        events.clear();
+
+        // when
+        promise.thenReturn(v -> {
+            throw new Exception();
+        }).catchVoid(e -> {
+        });
+
+        // then
+        assertEquals(Arrays.asList(
+                "created", "callbackStarted", "callbackEnded exceptionally", "rejected context",
+                "created", "callbackStarted", "callbackEnded normally", "resolved context"), events);
+    }
+
+    @Test
+    public void shouldNotReportInternalDependents() {
+        // given
+        PromiseInstrumentation.install(recorder);
+        Promise<Object> first = new Promise<>(p -> p.resolve(1));
+        Promise<Object> second = new Promise<>(p -> p.resolve(2));
+        events.clear();
+
+        // when
+        Promise.all(first, second);
+
+        // then
+        assertEquals(Arrays.asList("created", "resolved context"), events);
+    }
+
+    @Test
+    public void shouldNotReportPromisesCreatedWithoutInstrumentation() {
+        // given
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[1];
+        new Promise<>(p -> callbacks[0] = p);
+        PromiseInstrumentation.install(recorder);
+
+        // when
+        callbacks[0].resolve(1);
+
+        // then
+        assertTrue(events.isEmpty());
+    }
+
+    @Test
+    public void shouldPassExceptionThrownByInstrumentationToUncaughtExceptionHandler() {
+        // given
+        List<Throwable> uncaught = new ArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        Thread.currentThread().setUncaughtExceptionHandler((t, e) -> uncaught.add(e));
+        RuntimeException exception = new RuntimeException();
+        PromiseInstrumentation.install(new PromiseInstrumentation() {
+            @Override
+            public Object created(Promise<?> promise) {
+                throw exception;
+            }
+        });
+
+        try {
+            // when
+            Object[] value = new Object[1];
+            new Promise<>(p -> p.resolve(1)).then(v -> value[0] = v);
+
+            // then
+            assertEquals(1, value[0]);
+            assertEquals(Arrays.asList(exception, exception), uncaught);
+        } finally {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void shouldCountPromisesAndRecordLatencies() {
+        // given
+        PromiseMetrics metrics = new PromiseMetrics();
+        PromiseInstrumentation.install(metrics);
+        PromiseCallbacks<Object>[] callbacks = new PromiseCallbacks[1];
+
+        // when
+        new Promise<>(p -> callbacks[0] = p).then(v -> {
+        });
+        Promise.reject(new Exception());
+
+        // then
+        assertEquals(3, metrics.createdCount());
+        assertEquals(2, metrics.pending());
+        assertEquals(1, metrics.rejectedCount());
+
+        // when
+        callbacks[0].resolve(1);
+
+        // then
+        assertEquals(0, metrics.pending());
+        assertEquals(2, metrics.resolvedCount());
+        assertEquals(3, metrics.settlementLatency().count());
+        assertEquals(1, metrics.callbackDuration().count());
+    }
+
+}
@@ -0,0 +1,172 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseLazySpec {
+
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private Promise<String> lazy(String value) {
+        return Promise.lazy(p -> {
+            executions.incrementAndGet();
+            p.resolve(value);
+        });
+    }
+
+    @Test
+    public void shouldNotExecuteUntilCallbackIsAdded() {
+        // when
+        Promise<String> promise = lazy("OK");
+
+        // then
+        assertEquals(0, executions.get());
+        assertEquals("Promise(status=PENDING, value=null)", promise.toString());
+    }
+
+    @Test
+    public void shouldExecuteWhenThenCallbackIsAdded() {
+        // given
+        Promise<String> promise = lazy("OK");
+        String[] resolved = new String[1];
+
+        // when
+        promise.then(v -> resolved[0] = v);
+
+        // then
+        assertEquals("OK", resolved[0]);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void shouldExecuteWhenCatchCallbackIsAdded() {
+        // given
+        Promise<String> promise = Promise.lazy(p -> {
+            throw new IllegalStateException("failed");
+        });
+        Throwable[] caught = new Throwable[1];
+
+        // when
+        promise.catchVoid(e -> caught[0] = e);
+
+        // then
+        assertEquals("failed", caught[0].getMessage());
+    }
+
+    @Test
+    public void shouldExecuteOnlyOnce() {
+        // given
+        Promise<String> promise = lazy("OK");
+
+        // when
+        promise.thenReturn(String::length);
+        promise.catchReturn(e -> "fallback");
+        promise.then(v -> {
+        });
+
+        // then
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void shouldExecuteWhenPassedToAll() {
+        // given
+        Object[][] values = new Object[1][];
+
+        // when
+        Promise.all(lazy("a"), lazy("b")).then(v -> values[0] = v);
+
+        // then
+        assertArrayEquals(new Object[]{"a", "b"}, values[0]);
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    public void shouldExecuteWhenReturnedFromCallback() {
+        // given
+        String[] resolved = new String[1];
+
+        // when
+        Promise.resolve("OK").thenPromise(v -> lazy(v + "!")).then(v -> resolved[0] = v);
+
+        // then
+        assertEquals("OK!", resolved[0]);
+    }
+
+    @Test
+    public void shouldNotExecuteBranchWhichIsNotTaken() {
+        // given
+        Promise<String> taken = lazy("taken");
+        Promise<String> notTaken = lazy("not taken");
+        String[] resolved = new String[1];
+
+        // when
+        Promise.resolve(true).thenPromise(condition -> condition ? taken : notTaken).then(v -> resolved[0] = v);
+
+        // then
+        assertEquals("taken", resolved[0]);
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    public void shouldNotExecuteWhenCancelledBeforeCallbackIsAdded() {
+        // given
+        Promise<String> promise = lazy("OK");
+
+        // when
+        promise.cancel();
+        promise.catchVoid(e -> {
+        });
+
+        // then
+        assertEquals(0, executions.get());
+        assertTrue(promise.isCancelled());
+    }
+
+    @Test
+    public void shouldExecuteOnlyOnceWhenCallbacksAreAddedConcurrently() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (int i = 0; i < 100; i++) {
+                // given
+                executions.set(0);
+                Promise<String> promise = lazy("OK");
+                CyclicBarrier barrier = new CyclicBarrier(threads);
+                CountDownLatch latch = new CountDownLatch(threads);
+
+                // when
+                for (int t = 0; t < threads; t++) {
+                    executor.execute(() -> {
+                        try {
+                            barrier.await();
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                        promise.then(v -> latch.countDown());
+                    });
+                }
+
+                // then
+                assertTrue(latch.await(1, TimeUnit.SECONDS));
+                assertEquals(1, executions.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotAllowNullExecutor() {
+        Promise.lazy(null);
+    }
+
+}
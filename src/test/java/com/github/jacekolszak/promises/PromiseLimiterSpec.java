@@ -0,0 +1,229 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.junit.Test;
+
+public class PromiseLimiterSpec {
+
+    private final List<PromiseCallbacks<String>> started = new ArrayList<>();
+
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private Promise<String> operation() {
+        return new Promise<>(p -> {
+            started.add(p);
+            p.onCancel(cancelled::incrementAndGet);
+        });
+    }
+
+    @Test
+    public void shouldStartOperationImmediatelyWhenBelowLimit() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(2, 10);
+
+        // when
+        limiter.submit(this::operation);
+        limiter.submit(this::operation);
+
+        // then
+        assertEquals(2, started.size());
+        assertEquals(2, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    public void shouldStartQueuedOperationInOrderWhenInFlightOneSettles() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 10);
+        Promise<String> first = limiter.submit(this::operation);
+        Promise<String> second = limiter.submit(() -> Promise.resolve("second"));
+        Promise<String> third = limiter.submit(this::operation);
+        assertEquals(1, started.size());
+        assertEquals(2, limiter.queued());
+
+        // when
+        started.get(0).resolve("first");
+
+        // then
+        assertEquals("Promise(status=RESOLVED, value=first)", first.toString());
+        assertEquals("Promise(status=RESOLVED, value=second)", second.toString());
+        assertEquals(2, started.size());
+        assertEquals("Promise(status=PENDING, value=null)", third.toString());
+        assertEquals(1, limiter.inFlight());
+        assertEquals(0, limiter.queued());
+    }
+
+    @Test
+    public void shouldRejectImmediatelyWhenQueueIsFull() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 1);
+        limiter.submit(this::operation);
+        limiter.submit(this::operation);
+        Throwable[] caught = new Throwable[1];
+
+        // when
+        limiter.submit(this::operation).catchVoid(e -> caught[0] = e);
+
+        // then
+        assertTrue(caught[0] instanceof LimitExceededException);
+        assertEquals(0, caught[0].getStackTrace().length);
+        assertEquals(1, limiter.rejectedCount());
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    public void shouldFreeCapacityWhenOperationFails() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 1);
+        Throwable[] caught = new Throwable[1];
+        limiter.submit(() -> {
+            throw new IllegalStateException("failed");
+        }).catchVoid(e -> caught[0] = e);
+
+        // when
+        limiter.submit(this::operation);
+
+        // then
+        assertEquals("failed", caught[0].getMessage());
+        assertEquals(1, started.size());
+    }
+
+    @Test
+    public void cancellingQueuedOperationShouldPreventStartingIt() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 1);
+        limiter.submit(this::operation);
+        Promise<String> queued = limiter.submit(this::operation);
+
+        // when
+        queued.cancel();
+        started.get(0).resolve("OK");
+
+        // then
+        assertEquals(1, started.size());
+        assertEquals(0, limiter.queued());
+        assertEquals(0, limiter.inFlight());
+        assertEquals(0, cancelled.get());
+    }
+
+    @Test
+    public void cancelledOperationShouldBeCountedAsQueuedUntilItLeavesTheQueue() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 1);
+        limiter.submit(this::operation);
+        limiter.submit(this::operation).cancel();
+
+        // when
+        limiter.submit(this::operation);
+
+        // then
+        assertEquals(1, limiter.queued());
+        assertEquals(1, limiter.rejectedCount());
+    }
+
+    @Test
+    public void cancellingStartedOperationShouldCancelItAndFreeCapacity() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(1, 1);
+        Promise<String> inFlight = limiter.submit(this::operation);
+        limiter.submit(this::operation);
+
+        // when
+        inFlight.cancel();
+
+        // then
+        assertEquals(1, cancelled.get());
+        assertEquals(2, started.size());
+        assertEquals(1, limiter.inFlight());
+    }
+
+    @Test
+    public void shouldLimitRateOfStartingOperations() throws InterruptedException {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(10, 10, 50, 1);
+        CountDownLatch latch = new CountDownLatch(2);
+        long start = System.nanoTime();
+
+        // when
+        limiter.submit(() -> Promise.resolve("first")).then(v -> latch.countDown());
+        limiter.submit(() -> Promise.resolve("second")).then(v -> latch.countDown());
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(15));
+    }
+
+    @Test
+    public void shouldStartBurstOfOperationsImmediately() {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(10, 10, 1, 3);
+
+        // when
+        for (int i = 0; i < 4; i++) {
+            limiter.submit(this::operation);
+        }
+
+        // then
+        assertEquals(3, started.size());
+        assertEquals(1, limiter.queued());
+    }
+
+    @Test
+    public void shouldNeverExceedMaxInFlightWhenUsedConcurrently() throws InterruptedException {
+        // given
+        PromiseLimiter limiter = new PromiseLimiter(4, 10_000);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        AtomicInteger running = new AtomicInteger();
+        LongAccumulator maxRunning = new LongAccumulator(Math::max, 0);
+        CountDownLatch latch = new CountDownLatch(2000);
+
+        // when
+        for (int i = 0; i < 2000; i++) {
+            executor.execute(() -> limiter.submit(() -> {
+                maxRunning.accumulate(running.incrementAndGet());
+                return new Promise<String>(p -> executor.execute(() -> {
+                    running.decrementAndGet();
+                    p.resolve("OK");
+                }));
+            }).then(v -> latch.countDown()));
+        }
+
+        // then
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+            assertTrue(maxRunning.get() <= 4);
+            assertEquals(0, limiter.inFlight());
+            assertEquals(0, limiter.queued());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotAllowInvalidLimits() {
+        assertInvalid(() -> new PromiseLimiter(0, 1));
+        assertInvalid(() -> new PromiseLimiter(1, -1));
+        assertInvalid(() -> new PromiseLimiter(1, 1, 0, 1));
+        assertInvalid(() -> new PromiseLimiter(1, 1, 1, 0));
+    }
+
+    private static void assertInvalid(Runnable constructor) {
+        try {
+            constructor.run();
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+}
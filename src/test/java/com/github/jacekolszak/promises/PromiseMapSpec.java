@@ -0,0 +1,206 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseMapSpec {
+
+    private List<Object> resolvedList;
+
+    private Throwable caughtException;
+
+    private final List<PromiseCallbacks<Object>> callbacks = new ArrayList<>();
+
+    private Promise<Object> pendingPromise(Object input) {
+        return new Promise<>(callbacks::add);
+    }
+
+    @Test
+    public void shouldResolveValuesInOrderOfInputs() {
+        // given
+        Promise.map(Arrays.asList(1, 2, 3), this::pendingPromise, 3).then(list -> resolvedList = list);
+
+        // when
+        callbacks.get(2).resolve("c");
+        callbacks.get(0).resolve("a");
+        callbacks.get(1).resolve("b");
+
+        // then
+        assertEquals(Arrays.asList("a", "b", "c"), resolvedList);
+    }
+
+    @Test
+    public void shouldKeepAtMostConcurrencyPromisesPending() {
+        // given
+        Promise.map(Arrays.asList(1, 2, 3, 4, 5), this::pendingPromise, 2).then(list -> resolvedList = list);
+
+        // then
+        assertEquals(2, callbacks.size());
+
+        // when
+        callbacks.get(1).resolve("b");
+
+        // then
+        assertEquals(3, callbacks.size());
+    }
+
+    @Test
+    public void shouldPullInputsLazily() {
+        // given
+        AtomicInteger pulled = new AtomicInteger();
+        Iterable<Integer> infinite = () -> new Iterator<Integer>() {
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public Integer next() {
+                return pulled.incrementAndGet();
+            }
+        };
+
+        // when
+        Promise.map(infinite, this::pendingPromise, 4);
+
+        // then
+        assertEquals(4, pulled.get());
+    }
+
+    @Test
+    public void shouldMapManyInputsResolvedSynchronously() {
+        // given
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) {
+            inputs.add(i);
+        }
+
+        // when
+        Promise.map(inputs, Promise::<Object>resolve, 1).then(list -> resolvedList = list);
+
+        // then
+        assertEquals(inputs, resolvedList);
+    }
+
+    @Test
+    public void shouldMapInputsResolvedByManyThreads() throws InterruptedException {
+        // given
+        List<Integer> inputs = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            inputs.add(i);
+        }
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        Promise.map(inputs, i -> new Promise<>(p -> new Thread(() -> p.resolve(i)).start()), 16).
+                then(list -> {
+                    resolvedList = list;
+                    latch.countDown();
+                });
+
+        // then
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(inputs, resolvedList);
+    }
+
+    @Test
+    public void shouldRejectAndCancelPendingPromisesWhenOneOfThemWasRejected() {
+        // given
+        Throwable exception = new Exception();
+        List<Promise<Object>> promises = new ArrayList<>();
+        Promise.map(Arrays.asList(1, 2, 3, 4), i -> {
+            Promise<Object> promise = pendingPromise(i);
+            promises.add(promise);
+            return promise;
+        }, 2).catchVoid(e -> caughtException = e);
+
+        // when
+        callbacks.get(0).reject(exception);
+
+        // then
+        assertSame(exception, caughtException);
+        assertEquals(2, promises.size());
+        assertTrue(promises.get(1).isCancelled());
+    }
+
+    @Test
+    public void shouldRejectWhenMapperThrowsException() {
+        // given
+        RuntimeException exception = new RuntimeException();
+
+        // when
+        Promise.map(Arrays.asList(1, 2), i -> {
+            throw exception;
+        }, 1).catchVoid(e -> caughtException = e);
+
+        // then
+        assertSame(exception, caughtException);
+    }
+
+    @Test
+    public void shouldCancelPendingPromisesWhenCancelled() {
+        // given
+        Promise<Object> pending = pendingPromise(1);
+        Promise<List<Object>> mapped = Promise.map(Arrays.asList(1), i -> pending, 1);
+
+        // when
+        mapped.cancel();
+
+        // then
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void shouldResolveEmptyListForNoInputs() {
+        Promise.map(new ArrayList<>(), Promise::resolve, 1).then(list -> resolvedList = list);
+
+        assertEquals(new ArrayList<>(), resolvedList);
+    }
+
+    @Test
+    public void shouldRejectPromiseWhenConcurrencyIsNotPositive() {
+        Promise.map(Arrays.asList(1), Promise::resolve, 0).catchVoid(e -> caughtException = e);
+
+        assertTrue(caughtException instanceof IllegalArgumentException);
+    }
+
+    @Test
+    public void shouldConsumeValuesInOrderOfResolution() {
+        // given
+        List<Object> consumed = new ArrayList<>();
+        Promise.mapUnordered(Arrays.asList(1, 2, 3), this::pendingPromise, 3, consumed::add).
+                then(v -> resolvedList = consumed);
+
+        // when
+        callbacks.get(2).resolve("c");
+        callbacks.get(0).resolve("a");
+        callbacks.get(1).resolve("b");
+
+        // then
+        assertEquals(Arrays.asList("c", "a", "b"), resolvedList);
+    }
+
+    @Test
+    public void shouldRejectWhenConsumerThrowsException() {
+        // given
+        RuntimeException exception = new RuntimeException();
+
+        // when
+        Promise.mapUnordered(Arrays.asList(1, 2), Promise::resolve, 1, v -> {
+            throw exception;
+        }).catchVoid(e -> caughtException = e);
+
+        // then
+        assertSame(exception, caughtException);
+    }
+
+}
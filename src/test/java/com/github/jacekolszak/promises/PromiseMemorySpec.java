@@ -0,0 +1,85 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+
+import org.junit.Test;
+
+public class PromiseMemorySpec {
+
+    private PromiseCallbacks<String> callbacks;
+
+    private WeakReference<Object> payload;
+
+    @Test
+    public void settledPromiseShouldNotRetainDownstreamPromises() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<>(p -> callbacks = p);
+        WeakReference<Thenable<String>> downstream = new WeakReference<>(promise.thenReturn(s -> s));
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        assertGarbageCollected(downstream);
+        assertNotNull(promise);
+    }
+
+    @Test
+    public void promiseShouldNotRetainThenCallbackAfterItWasExecuted() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<>(p -> callbacks = p);
+        Thenable<Integer> downstream = promise.thenReturn(callbackCapturingPayload());
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        assertGarbageCollected(payload);
+        assertNotNull(downstream);
+    }
+
+    @Test
+    public void promiseShouldNotRetainCatchCallbackAfterItWasExecuted() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<>(p -> callbacks = p);
+        Thenable<Integer> downstream = promise.catchReturn(callbackCapturingPayload());
+
+        // when
+        callbacks.reject(new Exception());
+
+        // then
+        assertGarbageCollected(payload);
+        assertNotNull(downstream);
+    }
+
+    @Test
+    public void promiseShouldNotRetainSkippedCatchCallback() throws InterruptedException {
+        // given
+        Promise<String> promise = new Promise<>(p -> callbacks = p);
+        Thenable<Integer> downstream = promise.catchReturn(callbackCapturingPayload());
+
+        // when
+        callbacks.resolve("OK");
+
+        // then
+        assertGarbageCollected(payload);
+        assertNotNull(downstream);
+    }
+
+    private <T> CheckedFunction<T, Integer> callbackCapturingPayload() {
+        byte[] bytes = new byte[1024];
+        payload = new WeakReference<>(bytes);
+        return in -> bytes.length;
+    }
+
+    private static void assertGarbageCollected(WeakReference<?> reference) throws InterruptedException {
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull("Object was not garbage collected", reference.get());
+    }
+
+}
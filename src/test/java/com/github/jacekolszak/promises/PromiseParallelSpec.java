@@ -93,4 +93,37 @@ public class PromiseParallelSpec {
         assertTrue(range().anyMatch(i -> Long.valueOf(((Throwable) resolvedValue).getMessage()) == i));
     }
 
+    @Test
+    public void callbacksAddedInParallelWithResolutionShouldBeExecutedExactlyOnce() throws InterruptedException {
+        // given
+        int threadsCount = 100;
+        ExecutorService executorService = Executors.newFixedThreadPool(threadsCount);
+        AtomicInteger thenExecutionsCount = new AtomicInteger(0);
+        CountDownLatch allThreadsReady = new CountDownLatch(threadsCount + 1);
+        CountDownLatch allThreadsExecuted = new CountDownLatch(threadsCount);
+        PromiseCallbacks<String>[] callbacks = new PromiseCallbacks[1];
+        Promise<String> promise = new Promise<>(p -> callbacks[0] = p);
+
+        // when
+        for (int i = 0; i < threadsCount; i++) {
+            executorService.submit(() -> {
+                try {
+                    allThreadsReady.countDown();
+                    allThreadsReady.await();
+                    promise.then(s -> thenExecutionsCount.incrementAndGet());
+                    allThreadsExecuted.countDown();
+                } catch (InterruptedException e) {
+                    fail(e.getMessage());
+                }
+            });
+        }
+        allThreadsReady.countDown();
+        callbacks[0].resolve("OK");
+        allThreadsExecuted.await();
+        executorService.shutdown();
+
+        // then
+        assertEquals(threadsCount, thenExecutionsCount.get());
+    }
+
 }
@@ -103,4 +103,12 @@ public class PromiseRaceSpec {
         assertTrue(rejectedException instanceof IllegalArgumentException);
     }
 
+    @Test
+    public void shouldRejectWithExceptionWithoutStackTrace() {
+        Promise.race().catchVoid(t -> rejectedException = t);
+
+        assertTrue(rejectedException instanceof PromiseArgumentException);
+        assertEquals(0, rejectedException.getStackTrace().length);
+    }
+
 }
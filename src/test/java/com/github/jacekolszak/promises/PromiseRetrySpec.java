@@ -0,0 +1,157 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseRetrySpec {
+
+    private final AtomicInteger attempts = new AtomicInteger();
+
+    private Object resolvedValue;
+
+    private Throwable caughtException;
+
+    private Promise<String> failingTimes(int failures) {
+        if (attempts.incrementAndGet() <= failures) {
+            IOException exception = new IOException("attempt " + attempts.get());
+            return new Promise<>(p -> p.reject(exception));
+        }
+        return Promise.resolve("OK");
+    }
+
+    @Test
+    public void shouldResolveWhenAttemptSucceeds() {
+        // when
+        Promise.retry(() -> failingTimes(2), RetryPolicy.maxAttempts(3)).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("OK", resolvedValue);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void shouldRejectWithLastExceptionWhenAllAttemptsFailed() {
+        // when
+        Promise.retry(() -> failingTimes(5), RetryPolicy.maxAttempts(3)).catchVoid(e -> caughtException = e);
+
+        // then
+        assertEquals("attempt 3", caughtException.getMessage());
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    public void shouldNotRetryWhenPredicateRejectsException() {
+        // given
+        RetryPolicy policy = RetryPolicy.maxAttempts(3).retryOn(e -> !(e instanceof IOException));
+
+        // when
+        Promise.retry(() -> failingTimes(5), policy).catchVoid(e -> caughtException = e);
+
+        // then
+        assertEquals(1, attempts.get());
+        assertTrue(caughtException instanceof IOException);
+    }
+
+    @Test
+    public void shouldRetryWhenOperationThrowsException() {
+        // when
+        Promise.retry(() -> {
+            if (attempts.incrementAndGet() == 1) {
+                throw new IllegalStateException();
+            }
+            return Promise.resolve("OK");
+        }, RetryPolicy.maxAttempts(2)).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void shouldRetryManyTimesInConstantStack() {
+        // when
+        Promise.retry(() -> failingTimes(99_999), RetryPolicy.maxAttempts(100_000)).then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("OK", resolvedValue);
+    }
+
+    @Test
+    public void shouldWaitBetweenAttempts() throws InterruptedException {
+        // given
+        List<Long> times = new ArrayList<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        RetryPolicy policy = RetryPolicy.maxAttempts(3).withBackoff(20, 2, 1000);
+
+        // when
+        Promise.retry(() -> {
+            synchronized (times) {
+                times.add(System.nanoTime());
+            }
+            return failingTimes(2);
+        }, policy).then(v -> latch.countDown());
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        synchronized (times) {
+            assertTrue(times.get(1) - times.get(0) >= TimeUnit.MILLISECONDS.toNanos(20));
+            assertTrue(times.get(2) - times.get(1) >= TimeUnit.MILLISECONDS.toNanos(40));
+        }
+    }
+
+    @Test
+    public void shouldStopRetryingWhenCancelled() throws InterruptedException {
+        // given
+        Promise<String> promise = Promise.retry(() -> failingTimes(5), RetryPolicy.maxAttempts(5).withFixedDelay(20));
+
+        // when
+        promise.cancel();
+        Thread.sleep(50);
+
+        // then
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    public void shouldCancelPendingAttemptWhenCancelled() {
+        // given
+        Promise<String> attempt = new Promise<>(p -> {
+        });
+        Promise<String> promise = Promise.retry(() -> attempt, RetryPolicy.maxAttempts(5));
+
+        // when
+        promise.cancel();
+
+        // then
+        assertTrue(attempt.isCancelled());
+    }
+
+    @Test
+    public void shouldKeepDelaysWithinJitterAndMaxDelay() {
+        // given
+        RetryPolicy policy = RetryPolicy.maxAttempts(10).withBackoff(100, 2, 1000).withJitter(0.5);
+
+        // then
+        for (int i = 0; i < 100; i++) {
+            long first = policy.delay(1);
+            assertTrue(first >= 50 && first <= 150);
+            long tenth = policy.delay(10);
+            assertTrue(tenth >= 500 && tenth <= 1500);
+        }
+    }
+
+    @Test
+    public void shouldRejectWhenPolicyIsNull() {
+        Promise.retry(() -> failingTimes(0), null).catchVoid(e -> caughtException = e);
+
+        assertTrue(caughtException instanceof IllegalArgumentException);
+    }
+
+}
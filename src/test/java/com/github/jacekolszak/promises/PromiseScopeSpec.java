@@ -0,0 +1,214 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseScopeSpec {
+
+    private final List<PromiseCallbacks<String>> started = new ArrayList<>();
+
+    private final AtomicInteger cancelled = new AtomicInteger();
+
+    private Object resolvedValue = "not resolved";
+
+    private Throwable caughtException;
+
+    private Promise<String> operation() {
+        return new Promise<>(p -> {
+            started.add(p);
+            p.onCancel(cancelled::incrementAndGet);
+        });
+    }
+
+    @Test
+    public void joinShouldResolveWhenAllChildrenResolved() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        scope.fork(this::operation);
+        scope.fork(this::operation);
+        scope.join().then(v -> resolvedValue = v);
+
+        // when
+        started.get(0).resolve("a");
+        assertEquals("not resolved", resolvedValue);
+        started.get(1).resolve("b");
+
+        // then
+        assertNull(resolvedValue);
+        assertEquals(0, scope.pending());
+    }
+
+    @Test
+    public void joinShouldResolveImmediatelyWhenThereAreNoChildren() {
+        // when
+        new PromiseScope().join().then(v -> resolvedValue = v);
+
+        // then
+        assertNull(resolvedValue);
+    }
+
+    @Test
+    public void shouldCancelPendingChildrenWhenOneIsRejected() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        Promise<String> first = scope.fork(this::operation);
+        Promise<String> second = scope.fork(this::operation);
+        scope.join().catchVoid(e -> caughtException = e);
+        IllegalStateException exception = new IllegalStateException("failed");
+
+        // when
+        started.get(0).reject(exception);
+
+        // then
+        assertSame(exception, caughtException);
+        assertTrue(second.isCancelled());
+        assertFalse(first.isCancelled());
+        assertEquals(1, cancelled.get());
+    }
+
+    @Test
+    public void closeShouldCancelPendingChildren() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        Promise<String> resolved = scope.fork(() -> Promise.resolve("OK"));
+        Promise<String> pending = scope.fork(this::operation);
+
+        // when
+        scope.close();
+
+        // then
+        assertTrue(pending.isCancelled());
+        assertFalse(resolved.isCancelled());
+        assertEquals(1, cancelled.get());
+        scope.join().catchVoid(e -> caughtException = e);
+        assertTrue(caughtException instanceof CancellationException);
+    }
+
+    @Test
+    public void closeShouldCancelTimerTasksOfChildren() throws InterruptedException {
+        // given
+        PromiseScope scope = new PromiseScope();
+        CountDownLatch latch = new CountDownLatch(1);
+        scope.fork(() -> Timers.delay(50).then(v -> latch.countDown()));
+
+        // when
+        scope.close();
+
+        // then
+        assertFalse(latch.await(100, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void closeShouldNotAffectSettledScope() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        scope.fork(() -> Promise.resolve("OK"));
+        scope.join();
+
+        // when
+        scope.close();
+
+        // then
+        scope.join().then(v -> resolvedValue = v);
+        assertNull(resolvedValue);
+    }
+
+    @Test
+    public void shouldNotStartOperationForkedAfterChildrenWereCancelled() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        scope.fork(this::operation);
+        scope.fork(() -> Promise.reject(new IllegalStateException()));
+
+        // when
+        Promise<String> child = scope.fork(this::operation);
+
+        // then
+        assertTrue(child.isCancelled());
+        assertEquals(1, started.size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void shouldNotAllowForkingInSettledScope() {
+        // given
+        PromiseScope scope = new PromiseScope();
+        scope.join();
+
+        // when
+        scope.fork(this::operation);
+    }
+
+    @Test
+    public void shouldRejectChildWhenOperationThrowsException() {
+        // given
+        PromiseScope scope = new PromiseScope();
+
+        // when
+        scope.fork(() -> {
+            throw new IllegalStateException("failed");
+        }).catchVoid(e -> caughtException = e);
+
+        // then
+        assertEquals("failed", caughtException.getMessage());
+    }
+
+    @Test
+    public void shouldSettleWhenChildrenAreForkedAndSettledConcurrently() throws InterruptedException {
+        // given
+        PromiseScope scope = new PromiseScope();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch forked = new CountDownLatch(10_000);
+
+        // when
+        for (int i = 0; i < 10_000; i++) {
+            executor.execute(() -> {
+                scope.fork(() -> new Promise<String>(p -> executor.execute(() -> p.resolve("OK"))));
+                forked.countDown();
+            });
+        }
+        assertTrue(forked.await(10, TimeUnit.SECONDS));
+        CountDownLatch joined = new CountDownLatch(1);
+        scope.join().then(v -> joined.countDown());
+
+        // then
+        try {
+            assertTrue(joined.await(10, TimeUnit.SECONDS));
+            assertEquals(0, scope.pending());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void shouldNotRetainSettledChildren() throws InterruptedException {
+        // given
+        PromiseScope scope = new PromiseScope();
+        WeakReference<Promise<String>> settled =
+                new WeakReference<>(scope.fork(() -> Promise.resolve("OK")));
+
+        // when
+        for (int i = 0; i < 100; i++) {
+            scope.fork(() -> Promise.resolve("OK"));
+        }
+
+        // then
+        for (int i = 0; i < 50 && settled.get() != null; i++) {
+            System.gc();
+            Thread.sleep(10);
+        }
+        assertNull(settled.get());
+        scope.close();
+    }
+
+}
@@ -0,0 +1,190 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class PromiseSequenceSpec {
+
+    private static final int INPUTS = 100_000;
+
+    private Object resolvedValue = "not resolved";
+
+    private Throwable caughtException;
+
+    private final List<PromiseCallbacks<Object>> callbacks = new ArrayList<>();
+
+    private Promise<Object> pendingPromise(Object input) {
+        return new Promise<>(callbacks::add);
+    }
+
+    private static Iterable<Integer> range(int count) {
+        return () -> new Iterator<Integer>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public Integer next() {
+                return next++;
+            }
+        };
+    }
+
+    @Test
+    public void sequenceShouldMapNextInputOnlyWhenPreviousPromiseResolved() {
+        // given
+        Promise.sequence(Arrays.asList(1, 2, 3), this::pendingPromise).then(list -> resolvedValue = list);
+        assertEquals(1, callbacks.size());
+
+        // when
+        callbacks.get(0).resolve("a");
+        callbacks.get(1).resolve("b");
+        callbacks.get(2).resolve("c");
+
+        // then
+        assertEquals(3, callbacks.size());
+        assertEquals(Arrays.asList("a", "b", "c"), resolvedValue);
+    }
+
+    @Test
+    public void sequenceShouldMapManyInputsResolvedSynchronously() {
+        // when
+        Promise.sequence(range(INPUTS), Promise::resolve).then(list -> resolvedValue = list.size());
+
+        // then
+        assertEquals(INPUTS, resolvedValue);
+    }
+
+    @Test
+    public void sequenceShouldStopWhenPromiseIsRejected() {
+        // given
+        Exception exception = new Exception();
+        AtomicInteger pulled = new AtomicInteger();
+        Promise.sequence(range(3), i -> {
+            pulled.incrementAndGet();
+            return pendingPromise(i);
+        }).catchVoid(e -> caughtException = e);
+
+        // when
+        callbacks.get(0).reject(exception);
+
+        // then
+        assertSame(exception, caughtException);
+        assertEquals(1, pulled.get());
+    }
+
+    @Test
+    public void reduceShouldApplyReducerToNextInputOnlyWhenPreviousThenableResolved() {
+        // given
+        List<String> reduced = new ArrayList<>();
+        Promise.<String, Object>reduce(Arrays.asList("a", "b", "c"), "", (acc, input) -> {
+            reduced.add(acc + input);
+            return pendingPromise(input);
+        }).then(v -> resolvedValue = v);
+        assertEquals(Arrays.asList("a"), reduced);
+
+        // when
+        callbacks.get(0).resolve("x");
+        callbacks.get(1).resolve("y");
+        callbacks.get(2).resolve("z");
+
+        // then
+        assertEquals(Arrays.asList("a", "xb", "yc"), reduced);
+        assertEquals("z", resolvedValue);
+    }
+
+    @Test
+    public void reduceShouldPassValueOfPreviousThenableAsAccumulator() {
+        // when
+        Promise.reduce(Arrays.asList(1, 2, 3, 4), 0, (acc, input) -> Promise.resolve(acc + input)).
+                then(v -> resolvedValue = v);
+
+        // then
+        assertEquals(10, resolvedValue);
+    }
+
+    @Test
+    public void reduceShouldResolveWithSeedWhenThereAreNoInputs() {
+        // when
+        Promise.reduce(new ArrayList<Integer>(), "seed", (acc, input) -> Promise.resolve(acc + input)).
+                then(v -> resolvedValue = v);
+
+        // then
+        assertEquals("seed", resolvedValue);
+    }
+
+    @Test
+    public void reduceShouldReduceManyInputsResolvedSynchronously() {
+        // when
+        Promise.reduce(range(INPUTS), 0L, (acc, input) -> Promise.resolve(acc + input)).
+                then(v -> resolvedValue = v);
+
+        // then
+        assertEquals((long) INPUTS * (INPUTS - 1) / 2, resolvedValue);
+    }
+
+    @Test
+    public void reduceShouldReduceInputsResolvedByAnotherThread() throws InterruptedException {
+        // given
+        CountDownLatch latch = new CountDownLatch(1);
+
+        // when
+        Promise.reduce(range(1000), 0, (acc, input) -> new Promise<Integer>(p ->
+                new Thread(() -> p.resolve(acc + 1)).start())).
+                then(v -> {
+                    resolvedValue = v;
+                    latch.countDown();
+                });
+
+        // then
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(1000, resolvedValue);
+    }
+
+    @Test
+    public void reduceShouldRejectWhenReducerThrowsException() {
+        // given
+        RuntimeException exception = new RuntimeException();
+
+        // when
+        Promise.reduce(Arrays.asList(1, 2), 0, (acc, input) -> {
+            throw exception;
+        }).catchVoid(e -> caughtException = e);
+
+        // then
+        assertSame(exception, caughtException);
+    }
+
+    @Test
+    public void cancellingReduceShouldCancelPendingThenable() {
+        // given
+        Promise<Object> pending = pendingPromise(1);
+        Promise<Object> reduced = Promise.reduce(Arrays.asList(1, 2), null, (acc, input) -> pending);
+
+        // when
+        reduced.cancel();
+
+        // then
+        assertTrue(pending.isCancelled());
+    }
+
+    @Test
+    public void reduceShouldRejectPromiseWhenReducerIsNull() {
+        Promise.reduce(Arrays.asList(1), 0, null).catchVoid(e -> caughtException = e);
+
+        assertTrue(caughtException instanceof IllegalArgumentException);
+    }
+
+}
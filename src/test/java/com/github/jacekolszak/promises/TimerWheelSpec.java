@@ -0,0 +1,113 @@
+package com.github.jacekolszak.promises;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class TimerWheelSpec {
+
+    private final TimerWheel timerWheel = new TimerWheel("test-timer", 1, TimeUnit.MILLISECONDS, 8);
+
+    private final CountDownLatch latch = new CountDownLatch(1);
+
+    @Test
+    public void shouldExecuteTaskAfterDelay() throws InterruptedException {
+        // given
+        long start = System.nanoTime();
+
+        // when
+        timerWheel.schedule(latch::countDown, 10);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(10));
+    }
+
+    @Test
+    public void shouldExecuteTaskScheduledForMoreThanOneRotationOfTheWheel() throws InterruptedException {
+        // given
+        long start = System.nanoTime();
+
+        // when
+        timerWheel.schedule(latch::countDown, 50);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+    }
+
+    @Test
+    public void shouldExecuteAllTasks() throws InterruptedException {
+        // given
+        int count = 1000;
+        CountDownLatch allExecuted = new CountDownLatch(count);
+
+        // when
+        for (int i = 0; i < count; i++) {
+            timerWheel.schedule(allExecuted::countDown, i % 20);
+        }
+
+        // then
+        assertTrue(allExecuted.await(1, TimeUnit.SECONDS));
+        assertEquals(0, timerWheel.pending());
+    }
+
+    @Test
+    public void cancelledTaskShouldNotBeExecuted() throws InterruptedException {
+        // given
+        AtomicInteger executions = new AtomicInteger();
+        TimerWheel.Timeout timeout = timerWheel.schedule(executions::incrementAndGet, 10);
+
+        // when
+        boolean cancelled = timeout.cancel();
+
+        // then
+        timerWheel.schedule(latch::countDown, 20);
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(cancelled);
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    public void executedTaskCannotBeCancelled() throws InterruptedException {
+        // given
+        TimerWheel.Timeout timeout = timerWheel.schedule(latch::countDown, 0);
+        latch.await(1, TimeUnit.SECONDS);
+
+        // when
+        boolean cancelled = timeout.cancel();
+
+        // then
+        assertFalse(cancelled);
+    }
+
+    @Test
+    public void cancelledTasksShouldBeRemovedFromTheWheelImmediately() throws InterruptedException {
+        // given
+        TimerWheel.Timeout[] timeouts = new TimerWheel.Timeout[1000];
+        for (int i = 0; i < timeouts.length; i++) {
+            timeouts[i] = timerWheel.schedule(() -> {
+            }, 60_000);
+        }
+
+        // when
+        for (TimerWheel.Timeout timeout : timeouts) {
+            timeout.cancel();
+        }
+
+        // then
+        assertNoPendingTasks(timerWheel);
+    }
+
+    static void assertNoPendingTasks(TimerWheel timerWheel) throws InterruptedException {
+        for (int i = 0; i < 100 && timerWheel.pending() > 0; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, timerWheel.pending());
+    }
+
+}
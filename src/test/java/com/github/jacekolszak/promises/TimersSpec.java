@@ -10,6 +10,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.junit.After;
 import org.junit.Test;
 
 public class TimersSpec {
@@ -20,6 +21,11 @@ public class TimersSpec {
 
     private CountDownLatch latch = new CountDownLatch(1);
 
+    @After
+    public void restoreDefaultExecutor() {
+        setDefaultExecutor(null);
+    }
+
     @Test
     public void shouldTimeoutWithException() throws InterruptedException {
         // given
@@ -36,6 +42,29 @@ public class TimersSpec {
         assertTrue(exceptionCaught instanceof TimeoutException);
     }
 
+    @Test
+    public void timeoutExceptionShouldDescribeOperationAndDeadlineWithoutStackTrace() throws InterruptedException {
+        // given
+        long start = System.currentTimeMillis();
+        timeout(neverEndingPromise(), 10).
+                catchVoid(e -> {
+                    exceptionCaught = e;
+                    latch.countDown();
+                });
+
+        // when
+        latch.await(1, TimeUnit.SECONDS);
+
+        // then
+        PromiseTimeoutException exception = (PromiseTimeoutException) exceptionCaught;
+        assertEquals(10, exception.getTimeout());
+        assertTrue(exception.getDeadline().toEpochMilli() >= start + 10);
+        assertTrue(exception.getMessage().contains("10 ms"));
+        assertTrue(exception.getMessage().contains(exception.getDeadline().toString()));
+        assertTrue(exception.getMessage().startsWith("Timeout waiting for promise"));
+        assertEquals(0, exception.getStackTrace().length);
+    }
+
     @Test
     public void shouldTimeoutUsingExecutor() throws InterruptedException {
         // given
@@ -52,6 +81,94 @@ public class TimersSpec {
         assertEquals(1, executor.numberOfSubmittedTasks.get());
     }
 
+    @Test
+    public void timeoutShouldBeCancelledWhenPromiseIsResolved() throws InterruptedException {
+        // when
+        timeout(Promise.resolve("OK"), 60_000).then(v -> resolved = true);
+
+        // then
+        assertTrue(resolved);
+        TimerWheelSpec.assertNoPendingTasks(Timers.timer);
+    }
+
+    @Test
+    public void timeoutShouldBeCancelledWhenPromiseIsRejected() throws InterruptedException {
+        // given
+        Exception exception = new Exception();
+
+        // when
+        timeout(Promise.reject(exception), 60_000).catchVoid(e -> exceptionCaught = e);
+
+        // then
+        assertSame(exception, exceptionCaught);
+        TimerWheelSpec.assertNoPendingTasks(Timers.timer);
+    }
+
+    @Test
+    public void expiredTimeoutShouldCancelPromise() throws InterruptedException {
+        // given
+        Promise<Object> promise = new Promise<>(p -> p.onCancel(latch::countDown));
+
+        // when
+        timeout(promise, 10);
+
+        // then
+        // upstream is cancelled after the timeout promise is rejected and its callbacks are executed
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(promise.isCancelled());
+    }
+
+    @Test
+    public void timeoutExpiredImmediatelyShouldCancelPromise() throws InterruptedException {
+        // given
+        Promise<Object> promise = new Promise<>(p -> p.onCancel(latch::countDown));
+
+        // when
+        timeout(promise, 0, Runnable::run);
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertTrue(promise.isCancelled());
+    }
+
+    @Test
+    public void cancellingDelayShouldCancelTimerTask() throws InterruptedException {
+        // when
+        delay(60_000).cancel();
+
+        // then
+        TimerWheelSpec.assertNoPendingTasks(Timers.timer);
+    }
+
+    @Test
+    public void defaultExecutorShouldRunCallbacksInDaemonThreads() throws InterruptedException {
+        // given
+        delay(50).then(v -> {
+            resolved = Thread.currentThread().isDaemon();
+            latch.countDown();
+        });
+
+        // when
+        latch.await(1, TimeUnit.SECONDS);
+
+        // then
+        assertTrue(resolved);
+    }
+
+    @Test
+    public void delayShouldUseExecutorSetAsDefault() throws InterruptedException {
+        // given
+        ExecutorSpy executor = new ExecutorSpy();
+        setDefaultExecutor(executor);
+
+        // when
+        delay(10).then(v -> latch.countDown());
+
+        // then
+        assertTrue(latch.await(1, TimeUnit.SECONDS));
+        assertEquals(1, executor.numberOfSubmittedTasks.get());
+    }
+
     private Promise<Object> neverEndingPromise() {
         return new Promise<>(p -> {
         });
@@ -141,8 +258,8 @@ public class TimersSpec {
 
         @Override
         public void execute(Runnable command) {
-            super.execute(command);
             numberOfSubmittedTasks.incrementAndGet();
+            super.execute(command);
         }
 
     }